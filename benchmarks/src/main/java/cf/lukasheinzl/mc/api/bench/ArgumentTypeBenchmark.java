@@ -0,0 +1,84 @@
+package cf.lukasheinzl.mc.api.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cf.lukasheinzl.mc.api.cmd.ArgumentType;
+import cf.lukasheinzl.mc.api.cmd.ParsedArguments;
+
+/**
+ * This benchmark measures checking and parsing a single argument for every {@link cf.lukasheinzl.mc.api.cmd.ArgumentType
+ * ArgumentType} with valid and invalid input. ONLINE_PLAYER is measured with different amounts of online players.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArgumentTypeBenchmark{
+
+	@Param({"INT", "FLOAT", "BOOLEAN", "String", "ONLINE_PLAYER"})
+	private ArgumentType	type;
+
+	@Param({"true", "false"})
+	private boolean			valid;
+
+	@Param({"10", "1000"})
+	private int				players;
+
+	private String			arg;
+	private ParsedArguments	out;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		StandInServer.install(players);
+
+		switch(type){
+			case INT:
+				arg = valid ? "-1234567" : "12345x7";
+				break;
+			case FLOAT:
+				arg = valid ? "-1234.567" : "1234.5x7";
+				break;
+			case BOOLEAN:
+				arg = valid ? "false" : "fals";
+				break;
+			case ONLINE_PLAYER:
+				arg = valid ? "player" + (players - 1) : "Nobody";
+				break;
+			default:
+				arg = "text";
+				break;
+		}
+
+		out = new ParsedArguments(1);
+		out.reset(new String[]{arg});
+	}
+
+	@Benchmark
+	public boolean checkArgument(){
+		return type.checkArgument(arg);
+	}
+
+	@Benchmark
+	public boolean parseArgument(){
+		return type.parseArgument(arg, out, 0);
+	}
+
+}
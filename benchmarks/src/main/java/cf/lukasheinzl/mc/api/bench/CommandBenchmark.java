@@ -0,0 +1,139 @@
+package cf.lukasheinzl.mc.api.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cf.lukasheinzl.mc.api.CommandRegistry;
+import cf.lukasheinzl.mc.api.cmd.Argument;
+import cf.lukasheinzl.mc.api.cmd.ArgumentType;
+import cf.lukasheinzl.mc.api.cmd.ParsedArguments;
+import cf.lukasheinzl.mc.api.cmd.ParsedCommandHandler;
+
+/**
+ * This benchmark measures the whole command path: dispatching through the
+ * {@link cf.lukasheinzl.mc.api.CommandRegistry#handleCommand(CommandSender, Command, String, String[]) CommandRegistry}
+ * and validating the arguments in {@link cf.lukasheinzl.mc.api.cmd.CommandHandler#handle(CommandSender, String[])
+ * CommandHandler.handle}. The handler cycles through INT, FLOAT, BOOLEAN and ONLINE_PLAYER arguments; invalid input
+ * has an invalid last argument, so all preceding arguments are still parsed.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandBenchmark{
+
+	private static final ArgumentType[]	TYPES	= {ArgumentType.INT, ArgumentType.FLOAT, ArgumentType.BOOLEAN, ArgumentType.ONLINE_PLAYER};
+	private static final String[]		VALID	= {"42", "-1.5", "true", "Player1"};
+
+	@Param({"0", "1", "4", "8"})
+	private int							argCount;
+
+	@Param({"true", "false"})
+	private boolean						valid;
+
+	@Param({"100"})
+	private int							players;
+
+	private Command						cmd;
+	private CommandSender				sender;
+	private BenchmarkHandler			handler;
+	private String[]					args;
+	private String[]					dispatchArgs;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		StandInServer.install(players);
+
+		Argument[] types = new Argument[argCount];
+		args = new String[argCount];
+
+		for(int i = 0; i < argCount; i++){
+			types[i] = TYPES[i % TYPES.length];
+			args[i] = VALID[i % VALID.length];
+		}
+
+		if(!valid && argCount > 0){
+			args[argCount - 1] = "invalid";
+		} else if(!valid){
+			// without arguments the only invalid input is a missing argument
+			types = new Argument[]{ArgumentType.INT};
+		}
+
+		cmd = StandInServer.createCommand("bench");
+		sender = StandInServer.createPlayer("Sender");
+		handler = new BenchmarkHandler(cmd, types);
+		dispatchArgs = new String[args.length + 1];
+		dispatchArgs[0] = "run";
+
+		System.arraycopy(args, 0, dispatchArgs, 1, args.length);
+		CommandRegistry.register(handler, "run");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown(){
+		CommandRegistry.remove(handler);
+	}
+
+	@Benchmark
+	public boolean handleCommand(Blackhole bh){
+		handler.bh = bh;
+		return CommandRegistry.handleCommand(sender, cmd, "bench", dispatchArgs);
+	}
+
+	@Benchmark
+	public boolean handle(Blackhole bh){
+		handler.bh = bh;
+		return handler.handle(sender, args);
+	}
+
+	private static class BenchmarkHandler extends ParsedCommandHandler{
+
+		private final Argument[]	types;
+		private Blackhole			bh;
+
+		private BenchmarkHandler(Command cmd, Argument[] types){
+			super(cmd, types);
+			this.types = types;
+		}
+
+		@Override
+		protected boolean handleCommand(CommandSender sender, ParsedArguments args){
+			for(int i = 0; i < types.length; i++){
+				if(types[i] == ArgumentType.INT){
+					bh.consume(args.getLong(i));
+				} else if(types[i] == ArgumentType.FLOAT){
+					bh.consume(args.getDouble(i));
+				} else if(types[i] == ArgumentType.BOOLEAN){
+					bh.consume(args.getBoolean(i));
+				} else{
+					bh.consume(args.getObject(i));
+				}
+			}
+
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,500 @@
+package cf.lukasheinzl.mc.api.bench;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.enchantments.EnchantmentTarget;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.potion.PotionData;
+import org.bukkit.potion.PotionType;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import cf.lukasheinzl.mc.api.PlayerIndex;
+
+/**
+ * This class provides a lightweight in-process stand-in for the parts of Bukkit used by the command path and the
+ * inventories, so the benchmarks and tests run without a Minecraft server. The server, the players, the plugins, the
+ * inventories, the scheduler, the item factory and the item metas are dynamic proxies: the methods needed by the API
+ * are implemented, all others return default values. Scheduled tasks are only run by {@link #runTasks()}, the calling
+ * thread acts as the server thread. An enchantment named like its constant is registered for every constant of
+ * {@link org.bukkit.enchantments.Enchantment Enchantment}.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class StandInServer{
+
+	private static final Logger				LOGGER	= Logger.getLogger("StandInServer");
+	private static final List<Player>		PLAYERS	= new ArrayList<>();
+	private static final Queue<Runnable>	TASKS	= new ConcurrentLinkedQueue<>();
+	private static BukkitScheduler			scheduler;
+	private static ItemFactory				itemFactory;
+	private static boolean					installed;
+
+	private StandInServer(){
+
+	}
+
+	/**
+	 * Installs the stand-in server (once) and replaces the online players with the given amount of players named
+	 * <code>Player0</code>, <code>Player1</code>, ... The {@link cf.lukasheinzl.mc.api.PlayerIndex PlayerIndex} is
+	 * enabled for the new players. Scheduled tasks that did not run yet are discarded.
+	 * 
+	 * @param players
+	 *            The amount of online players
+	 */
+	public static synchronized void install(int players){
+		if(!installed){
+			LOGGER.setLevel(Level.WARNING);
+			scheduler = proxy(BukkitScheduler.class, StandInServer::scheduler);
+			itemFactory = proxy(ItemFactory.class, StandInServer::itemFactory);
+			registerEnchantments();
+			Bukkit.setServer(proxy(Server.class, StandInServer::server));
+			installed = true;
+		}
+
+		PlayerIndex.disable();
+		PLAYERS.clear();
+		TASKS.clear();
+
+		for(int i = 0; i < players; i++){
+			PLAYERS.add(createPlayer("Player" + i));
+		}
+
+		PlayerIndex.enable(createPlugin("Benchmark"));
+	}
+
+	/**
+	 * Runs the tasks scheduled so far, as the server does once per tick. Tasks scheduled by these tasks are run by the
+	 * next call.
+	 * 
+	 * @return The amount of tasks run
+	 */
+	public static int runTasks(){
+		int count = TASKS.size();
+
+		for(int i = 0; i < count; i++){
+			TASKS.poll().run();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Creates an enabled plugin with the given name.
+	 * 
+	 * @param name
+	 *            The name of the plugin
+	 * @return The newly created plugin
+	 */
+	public static Plugin createPlugin(String name){
+		return proxy(Plugin.class, (p, m, a) -> {
+			switch(m.getName()){
+				case "getName":
+					return name;
+				case "getLogger":
+					return LOGGER;
+				case "isEnabled":
+					return true;
+				default:
+					return null;
+			}
+		});
+	}
+
+	/**
+	 * Creates a player that is not online. Messages sent to it are discarded.
+	 * 
+	 * @param name
+	 *            The name of the player
+	 * @return The newly created player
+	 */
+	public static Player createPlayer(String name){
+		UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+
+		return proxy(Player.class, (p, m, a) -> {
+			switch(m.getName()){
+				case "getName":
+				case "getDisplayName":
+					return name;
+				case "getUniqueId":
+					return uuid;
+				case "isOnline":
+				case "hasPermission":
+					return true;
+				default:
+					return null;
+			}
+		});
+	}
+
+	/**
+	 * Creates a command that is not owned by any plugin.
+	 * 
+	 * @param name
+	 *            The name of the command
+	 * @return The newly created command
+	 */
+	public static Command createCommand(String name){
+		return new Command(name){
+
+			@Override
+			public boolean execute(CommandSender sender, String commandLabel, String[] args){
+				return false;
+			}
+
+		};
+	}
+
+	private static Object server(Object proxy, Method m, Object[] args){
+		switch(m.getName()){
+			case "getLogger":
+				return LOGGER;
+			case "getName":
+				return "StandInServer";
+			case "getVersion":
+			case "getBukkitVersion":
+				return "benchmark";
+			case "getOnlinePlayers":
+				return Collections.unmodifiableList(PLAYERS);
+			case "getPluginManager":
+				return proxy(PluginManager.class, (p, pm, a) -> null);
+			case "getScheduler":
+				return scheduler;
+			case "getItemFactory":
+				return itemFactory;
+			case "createInventory":
+				return args.length == 3 ? createInventory((InventoryHolder) args[0], (Integer) args[1], (String) args[2]) : null;
+			case "getPlayer":
+				return args[0] instanceof String ? getPlayer((String) args[0], false) : null;
+			case "getPlayerExact":
+				return getPlayer((String) args[0], true);
+			default:
+				return null;
+		}
+	}
+
+	private static Object scheduler(Object proxy, Method m, Object[] args){
+		if(m.getName().equals("runTask")){
+			TASKS.add((Runnable) args[1]);
+		}
+
+		return null;
+	}
+
+	// mirrors CraftItemFactory: every item but air has a meta, the potion materials have a PotionMeta
+	private static Object itemFactory(Object proxy, Method m, Object[] args){
+		switch(m.getName()){
+			case "getItemMeta":
+				return args[0] == Material.AIR ? null : new StandInMeta(isPotion((Material) args[0])).create();
+			case "isApplicable":
+				return args[0] != null && getType(args[1]) != Material.AIR;
+			case "asMetaFor":
+				StandInMeta meta = StandInMeta.of((ItemMeta) args[0]);
+				return meta.potion == isPotion(getType(args[1])) ? args[0] : meta.copy(!meta.potion).create();
+			case "equals":
+				return StandInMeta.of((ItemMeta) args[0]).isSimilar(StandInMeta.of((ItemMeta) args[1]));
+			default:
+				return null;
+		}
+	}
+
+	private static Material getType(Object o){
+		return o instanceof ItemStack ? ((ItemStack) o).getType() : (Material) o;
+	}
+
+	private static boolean isPotion(Material type){
+		return type == Material.POTION || type == Material.SPLASH_POTION || type == Material.LINGERING_POTION
+				|| type == Material.TIPPED_ARROW;
+	}
+
+	@SuppressWarnings("deprecation")
+	private static void registerEnchantments(){
+		for(Field f: Enchantment.class.getFields()){
+			if(f.getType() == Enchantment.class && Modifier.isStatic(f.getModifiers())){
+				try{
+					Enchantment e = (Enchantment) f.get(null);
+					Enchantment.registerEnchantment(new StandInEnchantment(e.getId(), f.getName()));
+				} catch(IllegalAccessException e){
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+	}
+
+	// the viewers are a mutable list, so tests can open and close the inventory
+	private static Inventory createInventory(InventoryHolder holder, int size, String title){
+		ItemStack[] contents = new ItemStack[size];
+		List<HumanEntity> viewers = new ArrayList<>();
+
+		return proxy(Inventory.class, (p, m, a) -> {
+			switch(m.getName()){
+				case "getSize":
+					return size;
+				case "getName":
+				case "getTitle":
+					return title;
+				case "getHolder":
+					return holder;
+				case "getViewers":
+					return viewers;
+				case "getItem":
+					return contents[(Integer) a[0]];
+				case "setItem":
+					contents[(Integer) a[0]] = a[1] == null ? null : ((ItemStack) a[1]).clone();
+					return null;
+				case "getContents":
+					return contents.clone();
+				case "setContents":
+					ItemStack[] items = (ItemStack[]) a[0];
+
+					for(int i = 0; i < size; i++){
+						contents[i] = i < items.length && items[i] != null ? items[i].clone() : null;
+					}
+
+					return null;
+				default:
+					return null;
+			}
+		});
+	}
+
+	// mirrors the linear search of CraftServer.getPlayer(String)
+	private static Player getPlayer(String name, boolean exact){
+		String lower = name.toLowerCase(Locale.ROOT);
+		Player found = null;
+		int delta = Integer.MAX_VALUE;
+
+		for(Player p: PLAYERS){
+			if(p.getName().equalsIgnoreCase(name)){
+				return p;
+			}
+
+			if(!exact && p.getName().toLowerCase(Locale.ROOT).startsWith(lower) && p.getName().length() - lower.length() < delta){
+				found = p;
+				delta = p.getName().length() - lower.length();
+			}
+		}
+
+		return found;
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler){
+		return type.cast(Proxy.newProxyInstance(StandInServer.class.getClassLoader(), new Class<?>[]{type}, (p, m, a) -> {
+			// only the methods of Object, ItemFactory declares an equals method as well
+			if(m.getDeclaringClass() != Object.class){
+				Object result = handler.invoke(p, m, a);
+				return result == null ? defaultValue(m.getReturnType()) : result;
+			}
+
+			switch(m.getName()){
+				case "equals":
+					return p == a[0];
+				case "hashCode":
+					return System.identityHashCode(p);
+				default:
+					return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(p));
+			}
+		}));
+	}
+
+	private static Object defaultValue(Class<?> type){
+		if(type == boolean.class){
+			return false;
+		} else if(type == int.class){
+			return 0;
+		} else if(type == long.class){
+			return 0L;
+		} else if(type == double.class){
+			return 0D;
+		} else if(type == float.class){
+			return 0F;
+		} else if(type == short.class){
+			return (short) 0;
+		} else if(type == byte.class){
+			return (byte) 0;
+		} else if(type == char.class){
+			return (char) 0;
+		}
+
+		return null;
+	}
+
+	// the state of an item meta, empty metas are similar to no meta at all
+	private static class StandInMeta implements InvocationHandler{
+
+		private static final PotionData		NO_POTION	= new PotionData(PotionType.UNCRAFTABLE);
+
+		private final boolean				potion;
+		private String						name;
+		private List<String>				lore;
+		private Map<Enchantment, Integer>	enchants	= new LinkedHashMap<>();
+		private Set<ItemFlag>				flags		= EnumSet.noneOf(ItemFlag.class);
+		private PotionData					base		= NO_POTION;
+
+		private StandInMeta(boolean potion){
+			this.potion = potion;
+		}
+
+		private static StandInMeta of(ItemMeta meta){
+			return meta == null ? new StandInMeta(false) : (StandInMeta) Proxy.getInvocationHandler(meta);
+		}
+
+		private ItemMeta create(){
+			Class<?> type = potion ? PotionMeta.class : ItemMeta.class;
+			return (ItemMeta) Proxy.newProxyInstance(StandInServer.class.getClassLoader(), new Class<?>[]{type}, this);
+		}
+
+		private StandInMeta copy(boolean potion){
+			StandInMeta copy = new StandInMeta(potion);
+			copy.name = name;
+			copy.lore = lore == null ? null : new ArrayList<>(lore);
+			copy.enchants = new LinkedHashMap<>(enchants);
+			copy.flags = EnumSet.copyOf(flags);
+			copy.base = potion ? base : NO_POTION;
+
+			return copy;
+		}
+
+		private boolean isSimilar(StandInMeta o){
+			return (name == null ? o.name == null : name.equals(o.name)) && (lore == null ? o.lore == null : lore.equals(o.lore))
+					&& enchants.equals(o.enchants) && flags.equals(o.flags) && base.equals(o.base);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method m, Object[] a){
+			switch(m.getName()){
+				case "hasDisplayName":
+					return name != null;
+				case "getDisplayName":
+					return name;
+				case "setDisplayName":
+					name = (String) a[0];
+					return null;
+				case "hasLore":
+					return lore != null;
+				case "getLore":
+					return lore == null ? null : new ArrayList<>(lore);
+				case "setLore":
+					@SuppressWarnings("unchecked")
+					List<String> l = (List<String>) a[0];
+					lore = l == null || l.isEmpty() ? null : new ArrayList<>(l);
+					return null;
+				case "hasEnchants":
+					return !enchants.isEmpty();
+				case "getEnchants":
+					return Collections.unmodifiableMap(new LinkedHashMap<>(enchants));
+				case "addEnchant":
+					return !a[1].equals(enchants.put((Enchantment) a[0], (Integer) a[1]));
+				case "addItemFlags":
+					Collections.addAll(flags, (ItemFlag[]) a[0]);
+					return null;
+				case "getItemFlags":
+					return EnumSet.copyOf(flags);
+				case "hasItemFlag":
+					return flags.contains(a[0]);
+				case "getBasePotionData":
+					return base;
+				case "setBasePotionData":
+					base = (PotionData) a[0];
+					return null;
+				case "clone":
+					return copy(potion).create();
+				case "equals":
+					return proxy == a[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "ItemMeta{name=" + name + ", lore=" + lore + ", enchants=" + enchants + ", flags=" + flags + ", potion="
+							+ base.getType() + "}";
+				default:
+					return defaultValue(m.getReturnType());
+			}
+		}
+
+	}
+
+	private static class StandInEnchantment extends Enchantment{
+
+		private final String	name;
+
+		private StandInEnchantment(int id, String name){
+			super(id);
+			this.name = name;
+		}
+
+		@Override
+		public String getName(){
+			return name;
+		}
+
+		@Override
+		public int getMaxLevel(){
+			return 1;
+		}
+
+		@Override
+		public int getStartLevel(){
+			return 1;
+		}
+
+		@Override
+		public EnchantmentTarget getItemTarget(){
+			return EnchantmentTarget.ALL;
+		}
+
+		@Override
+		public boolean isTreasure(){
+			return false;
+		}
+
+		@Override
+		public boolean isCursed(){
+			return false;
+		}
+
+		@Override
+		public boolean conflictsWith(Enchantment other){
+			return false;
+		}
+
+		@Override
+		public boolean canEnchantItem(ItemStack item){
+			return true;
+		}
+
+	}
+
+}
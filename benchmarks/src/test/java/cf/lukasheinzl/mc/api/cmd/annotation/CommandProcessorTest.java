@@ -0,0 +1,169 @@
+package cf.lukasheinzl.mc.api.cmd.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cf.lukasheinzl.mc.api.cmd.CommandHandler;
+import cf.lukasheinzl.mc.api.cmd.ParsedCommandHandler;
+
+/**
+ * This test compiles sample classes with the {@link cf.lukasheinzl.mc.api.cmd.annotation.CommandProcessor
+ * CommandProcessor} and checks the generated <code>_Commands</code> classes and the reported errors. The samples are
+ * compiled against the classpath of the test.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class CommandProcessorTest{
+
+	private Path								out;
+	private DiagnosticCollector<JavaFileObject>	diagnostics;
+
+	@Before
+	public void setUp() throws IOException{
+		out = Files.createTempDirectory("CommandProcessorTest");
+		diagnostics = new DiagnosticCollector<>();
+	}
+
+	@After
+	public void tearDown() throws IOException{
+		try(Stream<Path> files = Files.walk(out)){
+			for(Path p: (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator){
+				Files.delete(p);
+			}
+		}
+	}
+
+	@Test
+	public void testGeneratesCommands() throws Exception{
+		assertTrue(compile("sample.Arena", "package sample;", "",
+				"import cf.lukasheinzl.mc.api.cmd.annotation.*;",
+				"import org.bukkit.command.CommandSender;", "",
+				"public class Arena{", "",
+				"	@Command(\"arena join\")",
+				"	public boolean join(CommandSender sender, @Arg String name){ return true; }", "",
+				"	@Command(\"arena leave\")",
+				"	public void leave(CommandSender sender){ }", "",
+				"	@Command(\"lobby join\")",
+				"	public static void lobby(CommandSender sender, @Arg int slot, @Arg Boolean spectate){ }", "",
+				"}"));
+		assertEquals(Collections.emptyList(), errors());
+
+		try(URLClassLoader loader = new URLClassLoader(new URL[]{out.toUri().toURL()}, getClass().getClassLoader())){
+			Class<?> arena = loader.loadClass("sample.Arena");
+			Class<?> commands = loader.loadClass("sample.Arena_Commands");
+
+			assertSame(CommandHandler[].class, commands.getMethod("register", JavaPlugin.class, arena).getReturnType());
+
+			List<String> handlers = new ArrayList<>();
+
+			for(Class<?> c: commands.getDeclaredClasses()){
+				assertTrue(ParsedCommandHandler.class.isAssignableFrom(c));
+				handlers.add(c.getSimpleName());
+			}
+
+			Collections.sort(handlers);
+			assertEquals(Arrays.asList("JoinHandler", "LeaveHandler", "LobbyHandler"), handlers);
+		}
+	}
+
+	@Test
+	public void testDuplicatePathIsAnError() throws Exception{
+		assertFalse(compile("sample.Duplicate", "package sample;", "",
+				"import cf.lukasheinzl.mc.api.cmd.annotation.*;",
+				"import org.bukkit.command.CommandSender;", "",
+				"public class Duplicate{", "",
+				"	@Command(\"arena join\")",
+				"	public static void join(CommandSender sender){ }", "",
+				"	@Command(\"Arena  JOIN\")",
+				"	public static void joinAgain(CommandSender sender, @Arg String name){ }", "",
+				"}"));
+		assertEquals(Collections.singletonList("@Command \"arena join\" is already handled by join()"), errors());
+		assertFalse(Files.exists(out.resolve("sample").resolve("Duplicate_Commands.java")));
+	}
+
+	@Test
+	public void testInvalidMethodIsAnError() throws Exception{
+		assertFalse(compile("sample.Invalid", "package sample;", "",
+				"import cf.lukasheinzl.mc.api.cmd.annotation.*;", "",
+				"public class Invalid{", "",
+				"	@Command(\"invalid\")",
+				"	public static int invalid(){ return 0; }", "",
+				"}"));
+		assertEquals(Collections.singletonList("@Command methods have to return boolean or void"), errors());
+	}
+
+	private boolean compile(String name, String... lines) throws IOException{
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+
+		try(StandardJavaFileManager files = javac.getStandardFileManager(diagnostics, Locale.ROOT, null)){
+			files.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(out.toFile()));
+			files.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(out.toFile()));
+
+			JavaCompiler.CompilationTask task = javac.getTask(null, files, diagnostics, null, null,
+					Collections.singleton(new Source(name, String.join("\n", lines))));
+			task.setProcessors(Collections.singleton(new CommandProcessor()));
+
+			return task.call();
+		}
+	}
+
+	private List<String> errors(){
+		List<String> errors = new ArrayList<>();
+
+		for(Diagnostic<? extends JavaFileObject> d: diagnostics.getDiagnostics()){
+			if(d.getKind() == Diagnostic.Kind.ERROR){
+				errors.add(d.getMessage(Locale.ROOT));
+			}
+		}
+
+		return errors;
+	}
+
+	private static class Source extends SimpleJavaFileObject{
+
+		private final String	code;
+
+		private Source(String name, String code){
+			super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.code = code;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors){
+			return code;
+		}
+
+	}
+
+}
@@ -0,0 +1,234 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionData;
+import org.bukkit.potion.PotionType;
+import org.junit.Before;
+import org.junit.Test;
+
+import cf.lukasheinzl.mc.api.bench.StandInServer;
+
+/**
+ * This test checks that the {@link cf.lukasheinzl.mc.api.inventory.InventoryCodec InventoryCodec} decodes exactly
+ * what it encoded, and that it rejects invalid data instead of throwing or allocating unchecked amounts of memory. The
+ * invalid data is written by hand, so it has to follow the format written by the codec.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class InventoryCodecTest{
+
+	private static final int	MAGIC			= 0x50414943;
+	private static final int	KIND_ITEM		= 0;
+	private static final int	KIND_LAYOUTS	= 1;
+	private static final int	HAS_LORE		= 2;
+
+	private APIItem				sword;
+	private APIItem				potion;
+
+	@Before
+	public void setUp(){
+		StandInServer.install(0);
+
+		sword = new ItemBuilder(new ItemStack(Material.DIAMOND_SWORD, 1, (short) -1)).setName("§6Excalibur")
+				.setLore("First line", "", "Zweite Zeile äöü").addEnchantment(Enchantment.DAMAGE_ALL, 5, true)
+				.addEnchantment(Enchantment.DURABILITY, 100, true).addFlags(ItemFlag.HIDE_ENCHANTS, ItemFlag.HIDE_ATTRIBUTES)
+				.build();
+		potion = new ItemBuilder(Material.SPLASH_POTION, 3).setName("Speed").setPotionData(new PotionData(PotionType.SPEED, false, true))
+				.addFlags(ItemFlag.HIDE_POTION_EFFECTS).build();
+	}
+
+	@Test
+	public void testItemRoundTrip(){
+		ItemStack decoded = InventoryCodec.decodeItem(InventoryCodec.encode(sword)).getItemStack();
+
+		assertEquals(sword.getItemStack(), decoded);
+		assertEquals(-1, decoded.getDurability());
+		assertEquals(5, decoded.getEnchantmentLevel(Enchantment.DAMAGE_ALL));
+		assertEquals(100, decoded.getEnchantmentLevel(Enchantment.DURABILITY));
+	}
+
+	@Test
+	public void testPotionRoundTrip(){
+		APIItem extended = APIItem.newPotionItem(1, new PotionData(PotionType.NIGHT_VISION, true, false));
+
+		assertEquals(potion.getItemStack(), InventoryCodec.decodeItem(InventoryCodec.encode(potion)).getItemStack());
+		assertEquals(extended.getItemStack(), InventoryCodec.decodeItem(InventoryCodec.encode(extended)).getItemStack());
+	}
+
+	@Test
+	public void testItemWithoutMetaRoundTrip(){
+		APIItem stone = new APIItem(Material.STONE, 64);
+
+		assertEquals(stone.getItemStack(), InventoryCodec.decodeItem(InventoryCodec.encode(stone)).getItemStack());
+	}
+
+	@Test
+	public void testLayoutsRoundTrip(){
+		ItemStack[] contents = new ItemStack[27];
+		contents[0] = sword.getItemStack();
+		contents[13] = potion.getItemStack();
+		contents[26] = new ItemStack(Material.STONE, 64);
+
+		Map<String, InventoryTemplate> layouts = new LinkedHashMap<>();
+		layouts.put("shop", new InventoryTemplate(3, "§aShop", contents));
+		layouts.put(null, new InventoryTemplate(1, null, new ItemStack[]{null, sword.getItemStack()}));
+		layouts.put("empty", new InventoryTemplate(6, "Empty", new ItemStack[0]));
+
+		Map<String, InventoryTemplate> decoded = InventoryCodec.decodeLayouts(InventoryCodec.encode(layouts));
+
+		assertEquals(new ArrayList<>(layouts.keySet()), new ArrayList<>(decoded.keySet()));
+
+		for(Iterator<InventoryTemplate> i = layouts.values().iterator(), j = decoded.values().iterator(); i.hasNext();){
+			assertLayoutEquals(i.next(), j.next());
+		}
+	}
+
+	@Test
+	public void testSingleLayoutRoundTrip(){
+		InventoryTemplate t = new InventoryTemplate(2, "Single", new ItemStack[]{potion.getItemStack()});
+
+		assertLayoutEquals(t, InventoryCodec.decodeLayout(InventoryCodec.encode(t)));
+	}
+
+	@Test
+	public void testHandWrittenDataIsAccepted(){
+		// makes sure the data of the other tests is only rejected because of the invalid value
+		assertNotNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, 1, 1, 0, 0)));
+		assertNotNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[0], 1, 0, 1, 0, 0)));
+	}
+
+	@Test
+	public void testTruncatedBufferIsRejected(){
+		ByteBuffer item = InventoryCodec.encode(sword);
+		ByteBuffer layout = InventoryCodec.encode(new InventoryTemplate(1, "Truncated", new ItemStack[]{sword.getItemStack()}));
+
+		for(int length = 0; length < item.limit(); length++){
+			assertNull(InventoryCodec.decodeItem(truncate(item, length)));
+		}
+
+		for(int length = 0; length < layout.limit(); length++){
+			assertNull(InventoryCodec.decodeLayout(truncate(layout, length)));
+		}
+	}
+
+	@Test
+	public void testOversizedCountIsRejected(){
+		ByteBuffer table = header(KIND_ITEM, Integer.MAX_VALUE);
+		table.flip();
+
+		// the string table, the layouts, the slots and the lore
+		assertNull(InventoryCodec.decodeItem(table));
+		assertNull(InventoryCodec.decodeLayouts(encoded(KIND_LAYOUTS, new String[0], Integer.MAX_VALUE)));
+		assertNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[]{"STONE"}, 1, 0, 1, 0, 10)));
+		assertNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, 1, 1, 0, HAS_LORE, 0x10000)));
+	}
+
+	@Test
+	public void testInvalidValuesAreRejected(){
+		// no, too many or too few rows, a slot out of range, an empty and an oversized stack
+		assertNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[0], 1, 0, 0, 0, 0)));
+		assertNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[0], 1, 0, 7, 0, 0)));
+		assertNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[0], 1, 0, -1, 0, 0)));
+		assertNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[]{"STONE"}, 1, 0, 1, 0, 1, 9, 1, 1, 0, 0)));
+		assertNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, 1, 0, 0, 0)));
+		assertNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, 1, 128, 0, 0)));
+	}
+
+	@Test
+	public void testBadStringIdIsRejected(){
+		// an id behind the table, a negative id and the null id where a name is required
+		assertNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, 2, 1, 0, 0)));
+		assertNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, -1, 1, 0, 0)));
+		assertNull(InventoryCodec.decodeItem(encoded(KIND_ITEM, new String[]{"STONE"}, 0, 1, 0, 0)));
+		assertNull(InventoryCodec.decodeLayout(encoded(KIND_LAYOUTS, new String[0], 1, 1, 1, 0, 0)));
+	}
+
+	@Test
+	public void testNewerVersionIsRejected(){
+		ByteBuffer item = InventoryCodec.encode(sword);
+		ByteBuffer layout = InventoryCodec.encode(new InventoryTemplate(1, "Newer", new ItemStack[0]));
+
+		// the version is the varint behind the magic number
+		item.put(4, (byte) (InventoryCodec.VERSION + 1));
+		layout.put(4, (byte) (InventoryCodec.VERSION + 1));
+
+		assertNull(InventoryCodec.decodeItem(item));
+		assertNull(InventoryCodec.decodeLayout(layout));
+	}
+
+	@Test
+	public void testWrongKindIsRejected(){
+		assertNull(InventoryCodec.decodeLayout(InventoryCodec.encode(sword)));
+		assertNull(InventoryCodec.decodeItem(InventoryCodec.encode(new InventoryTemplate(1, "Layout", new ItemStack[0]))));
+	}
+
+	private static void assertLayoutEquals(InventoryTemplate expected, InventoryTemplate actual){
+		assertEquals(expected.getRows(), actual.getRows());
+		assertEquals(expected.getName(), actual.getName());
+
+		for(int j = 0; j < expected.getRows() * 9; j++){
+			assertEquals(expected.getItem(j), actual.getItem(j));
+		}
+	}
+
+	private static ByteBuffer truncate(ByteBuffer buf, int length){
+		ByteBuffer copy = buf.duplicate();
+		copy.limit(length);
+
+		return copy.slice();
+	}
+
+	// the header with the given string table followed by the given varints
+	private static ByteBuffer encoded(int kind, String[] table, int... body){
+		ByteBuffer buf = header(kind, table.length);
+
+		for(String s: table){
+			byte[] b = s.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(buf, b.length);
+			buf.put(b);
+		}
+
+		for(int v: body){
+			writeVarInt(buf, v);
+		}
+
+		buf.flip();
+
+		return buf;
+	}
+
+	private static ByteBuffer header(int kind, int tableSize){
+		ByteBuffer buf = ByteBuffer.allocate(1024);
+		buf.putInt(MAGIC);
+		writeVarInt(buf, InventoryCodec.VERSION);
+		writeVarInt(buf, kind);
+		writeVarInt(buf, tableSize);
+
+		return buf;
+	}
+
+	private static void writeVarInt(ByteBuffer buf, int v){
+		while((v & ~0x7F) != 0){
+			buf.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+
+		buf.put((byte) v);
+	}
+
+}
@@ -0,0 +1,231 @@
+package cf.lukasheinzl.mc.api.inventory.vault;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cf.lukasheinzl.mc.api.bench.StandInServer;
+import cf.lukasheinzl.mc.api.inventory.APIInventory;
+
+/**
+ * This test checks the eviction of the {@link cf.lukasheinzl.mc.api.inventory.vault.VaultManager VaultManager} with
+ * more open vaults than it may cache. Open vaults and vaults handed out in the current tick must never be evicted,
+ * otherwise their changes are lost and loading them again creates a second live copy. A vault that could not be
+ * written must keep waiting until it is written.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class VaultManagerTest{
+
+	private static final int	MAX_CACHED	= 2;
+
+	private MemoryVaultStore	store;
+	private VaultManager		vaults;
+	private Player				player;
+	private UUID				owner;
+
+	@Before
+	public void setUp(){
+		StandInServer.install(1);
+
+		store = new MemoryVaultStore();
+		vaults = new VaultManager(StandInServer.createPlugin("VaultManagerTest"), store, 1, "Vault", MAX_CACHED);
+		player = StandInServer.createPlayer("Player0");
+		owner = player.getUniqueId();
+	}
+
+	@After
+	public void tearDown(){
+		vaults.close();
+	}
+
+	@Test
+	public void testOpenVaultsAreNotEvicted(){
+		List<APIInventory> open = openVaults(MAX_CACHED * 2);
+		StandInServer.runTasks();
+
+		assertEquals(MAX_CACHED * 2, vaults.getCachedCount());
+
+		for(int i = 0; i < open.size(); i++){
+			assertSame(open.get(i), await(vaults.load(owner, i)));
+		}
+	}
+
+	@Test
+	public void testLoadedVaultIsNotEvictedBeforeOpened(){
+		openVaults(MAX_CACHED + 1);
+
+		// all cached vaults are open, so the loaded one is the only candidate for eviction
+		APIInventory loaded = await(vaults.load(owner, MAX_CACHED + 1));
+
+		assertEquals(MAX_CACHED + 2, vaults.getCachedCount());
+		assertSame(loaded, await(vaults.load(owner, MAX_CACHED + 1)));
+
+		loaded.getInventory().getViewers().add(player);
+		StandInServer.runTasks();
+
+		assertSame(loaded, await(vaults.load(owner, MAX_CACHED + 1)));
+	}
+
+	@Test
+	public void testHandedOutVaultIsKeptUntilEndOfTick(){
+		VaultManager uncached = new VaultManager(StandInServer.createPlugin("VaultManagerTest"), store, 1, "Vault", 0);
+		APIInventory loaded = await(uncached.load(owner, 0));
+
+		assertEquals(1, uncached.getCachedCount());
+		assertSame(loaded, await(uncached.load(owner, 0)));
+
+		StandInServer.runTasks();
+
+		assertEquals(0, uncached.getCachedCount());
+		assertTrue(uncached.close(1000));
+		assertEquals(1, store.size());
+	}
+
+	@Test
+	public void testClosedVaultsAreEvicted(){
+		List<APIInventory> open = openVaults(MAX_CACHED * 2);
+
+		for(APIInventory i: open){
+			close(vaults, i.getInventory());
+		}
+
+		StandInServer.runTasks();
+
+		assertEquals(MAX_CACHED, vaults.getCachedCount());
+		assertTrue(vaults.close(1000));
+		assertEquals(MAX_CACHED * 2, store.size());
+	}
+
+	@Test
+	public void testFailedWritesAreRetried() throws InterruptedException{
+		FailingStore failing = new FailingStore(store);
+		VaultManager retrying = new VaultManager(StandInServer.createPlugin("VaultManagerTest"), failing, 1, "Vault", 0);
+		APIInventory vault = await(retrying.load(owner, 0));
+
+		vault.getInventory().getViewers().add(player);
+		close(retrying, vault.getInventory());
+		StandInServer.runTasks();
+		failing.attempts.acquire();
+
+		// the evicted vault is only left in the waiting states
+		assertEquals(0, retrying.getCachedCount());
+		assertEquals(1, retrying.getPendingCount());
+		assertEquals(0, store.size());
+
+		// the retry is scheduled with a delay of a second
+		failing.failing = false;
+		failing.attempts.acquire();
+
+		assertTrue(retrying.close(10000));
+		assertEquals(0, retrying.getPendingCount());
+		assertEquals(1, store.size());
+	}
+
+	private List<APIInventory> openVaults(int count){
+		List<APIInventory> open = new ArrayList<>();
+
+		for(int i = 0; i < count; i++){
+			APIInventory vault = await(vaults.load(owner, i));
+			vault.getInventory().getViewers().add(player);
+			open.add(vault);
+		}
+
+		return open;
+	}
+
+	// Bukkit calls the listeners while the closing player is still a viewer
+	private void close(VaultManager vaults, Inventory i){
+		vaults.onClose(new InventoryCloseEvent(new InventoryView(){
+
+			@Override
+			public Inventory getTopInventory(){
+				return i;
+			}
+
+			@Override
+			public Inventory getBottomInventory(){
+				return null;
+			}
+
+			@Override
+			public HumanEntity getPlayer(){
+				return player;
+			}
+
+			@Override
+			public InventoryType getType(){
+				return InventoryType.CHEST;
+			}
+
+		}));
+
+		i.getViewers().remove(player);
+	}
+
+	// the vaults are completed by scheduled tasks, which only run while waiting
+	private static <T> T await(CompletableFuture<T> f){
+		while(!f.isDone()){
+			StandInServer.runTasks();
+
+			try{
+				Thread.sleep(1);
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+
+		return f.join();
+	}
+
+	private static class FailingStore implements VaultStore{
+
+		private final VaultStore	store;
+		private final Semaphore		attempts	= new Semaphore(0);
+		private volatile boolean	failing		= true;
+
+		private FailingStore(VaultStore store){
+			this.store = store;
+		}
+
+		@Override
+		public ByteBuffer read(String id) throws IOException{
+			return store.read(id);
+		}
+
+		@Override
+		public void write(String id, ByteBuffer data) throws IOException{
+			try{
+				if(failing){
+					throw new IOException("Disk full");
+				}
+
+				store.write(id, data);
+			} finally{
+				attempts.release();
+			}
+		}
+
+	}
+
+}
@@ -1,9 +1,17 @@
 package cf.lukasheinzl.mc.api;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import cf.lukasheinzl.mc.api.cmd.CommandExecutor;
+import cf.lukasheinzl.mc.api.cmd.CommandMetrics;
+import cf.lukasheinzl.mc.api.inventory.InventoryRouter;
+import cf.lukasheinzl.mc.api.scoreboard.ScoreboardListener;
 import net.md_5.bungee.api.ChatColor;
 
 public class API extends JavaPlugin{
@@ -14,11 +22,27 @@ public class API extends JavaPlugin{
 	@Override
 	public void onEnable(){
 		System.out.println("PluginAPI by Lukas Heinzl | Version " + VERSION + " (Java " + JAVA_VERSION + ")");
+		PlayerIndex.enable(this);
+		InventoryRouter.enable(this);
+		getServer().getPluginManager().registerEvents(new RegistryListener(), this);
+		getServer().getPluginManager().registerEvents(new ScoreboardListener(), this);
+	}
+
+	@Override
+	public void onDisable(){
+		PlayerIndex.disable();
+		InventoryRouter.disable();
+		CommandExecutor.shutdownDefault();
 	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args){
 		if(cmd.getName().equals("pluginapi")){
+			if(args.length > 0 && args[0].equalsIgnoreCase("stats") && sender.hasPermission("pluginapi.stats")){
+				sendStats(sender);
+				return true;
+			}
+
 			sender.sendMessage(ChatColor.RED + "PluginAPI by Lukas Heinzl" + ChatColor.RESET + " | " + ChatColor.GREEN + "Version " + VERSION
 					+ " (Java " + JAVA_VERSION + ")");
 			return true;
@@ -27,4 +51,23 @@ public class API extends JavaPlugin{
 		return false;
 	}
 
+	private void sendStats(CommandSender sender){
+		List<Map.Entry<String, CommandMetrics>> list = new ArrayList<>(CommandRegistry.getMetrics().entrySet());
+		list.sort((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()));
+
+		sender.sendMessage(ChatColor.RED + "PluginAPI command stats" + ChatColor.RESET + " (by total time)");
+
+		for(int i = 0; i < Math.min(10, list.size()); i++){
+			CommandMetrics m = list.get(i).getValue();
+			sender.sendMessage(ChatColor.GREEN + "/" + list.get(i).getKey() + ChatColor.RESET + ": " + m.getInvocations() + " calls, "
+					+ m.getValidationFailures() + " invalid, " + m.getHandlerFailures() + " failed, " + m.getRejections()
+					+ " rejected | avg " + millis(m.getMeanNanos()) + ", p99 " + millis(m.getPercentileNanos(0.99)) + ", max "
+					+ millis(m.getMaxNanos()) + ", total " + millis(m.getTotalNanos()));
+		}
+	}
+
+	private static String millis(long nanos){
+		return String.format("%.2fms", nanos / 1e6);
+	}
+
 }
@@ -1,25 +1,41 @@
 package cf.lukasheinzl.mc.api;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.plugin.Plugin;
 
 import cf.lukasheinzl.mc.api.cmd.CommandHandler;
+import cf.lukasheinzl.mc.api.cmd.CommandMetrics;
+import cf.lukasheinzl.mc.api.cmd.CommandNode;
 
 /**
  * This class can be used to manage {@link cf.lukasheinzl.mc.api.cmd.CommandHandler CommandHandlers}. The
  * {@link #handleCommand(CommandSender, Command, String, String[]) handleCommand} method can be called in the
  * {@link org.bukkit.plugin.java.JavaPlugin#onCommand(CommandSender, Command, String, String[]) JavaPlugin.onCommand}
- * method to handle all registered commands.
+ * method to handle all registered commands.<br>
+ * CommandHandlers can also be registered as sub-commands (e.g. <code>/arena join &lt;name&gt;</code>). All handlers of
+ * a command form a {@link cf.lukasheinzl.mc.api.cmd.CommandNode dispatch tree} that is resolved in a single pass over
+ * the arguments. The {@link #handleTabComplete(CommandSender, Command, String, String[]) handleTabComplete} method can
+ * be called in the {@link org.bukkit.plugin.java.JavaPlugin#onTabComplete(CommandSender, Command, String, String[])
+ * JavaPlugin.onTabComplete} method to complete sub-commands and arguments of all registered commands.<br>
+ * The registry is thread-safe and lookups never block. Handlers of plugin commands are removed automatically once the
+ * plugin that owns the command is disabled.
  * 
  * @author Lukas Heinzl
  *
  */
 public class CommandRegistry{
 
-	private static final Map<String, CommandHandler> CMD_HANDLERS = new HashMap<>();
+	private static final Map<String, CommandNode>			CMD_NODES	= new ConcurrentHashMap<>();
+	private static final Map<String, Set<CommandHandler>>	OWNED		= new ConcurrentHashMap<>();
 
 	private CommandRegistry(){
 
@@ -33,28 +49,111 @@ public class CommandRegistry{
 	 *            The CommandHandler to register
 	 */
 	public static void register(CommandHandler ch){
-		CMD_HANDLERS.put(ch.getName(), ch);
+		register(ch, new String[0]);
 	}
 
 	/**
-	 * Removes the CommandHandler from the registry.
+	 * Register the CommandHandler as a sub-command. For example registering a handler for the command "arena" with the
+	 * path "join" will handle <code>/arena join ...</code>. The handler will only receive the arguments following the
+	 * path.
+	 * 
+	 * @param ch
+	 *            The CommandHandler to register
+	 * @param path
+	 *            The literal sub-command names leading to the handler (case-insensitive)
+	 */
+	public static synchronized void register(CommandHandler ch, String... path){
+		CMD_NODES.computeIfAbsent(ch.getName(), CommandNode::new).getOrCreate(path).setHandler(ch);
+
+		Plugin owner = getOwner(ch);
+
+		if(owner != null){
+			OWNED.computeIfAbsent(NamespacedRegistry.namespace(owner), k -> ConcurrentHashMap.newKeySet()).add(ch);
+		}
+	}
+
+	/**
+	 * Registers all given CommandHandlers.
+	 * 
+	 * @param handlers
+	 *            The CommandHandlers to register
+	 * @see #register(CommandHandler)
+	 */
+	public static void registerAll(CommandHandler... handlers){
+		for(CommandHandler ch: handlers){
+			register(ch);
+		}
+	}
+
+	/**
+	 * Removes the CommandHandler from the registry. This includes all sub-commands it was registered for.
 	 * 
 	 * @param ch
 	 *            The CommandHandler to remove
-	 * @see #remove(String)
 	 */
-	public static void remove(CommandHandler ch){
-		remove(ch.getName());
+	public static synchronized void remove(CommandHandler ch){
+		CommandNode n = CMD_NODES.get(ch.getName());
+
+		if(n != null && n.remove(ch)){
+			CMD_NODES.remove(ch.getName());
+		}
+
+		Plugin owner = getOwner(ch);
+
+		if(owner != null){
+			Set<CommandHandler> handlers = OWNED.get(NamespacedRegistry.namespace(owner));
+
+			if(handlers != null){
+				handlers.remove(ch);
+			}
+		}
 	}
 
 	/**
-	 * Removes the CommandHandler from the registry.
+	 * Removes the command and all of its sub-commands from the registry.
 	 * 
 	 * @param name
-	 *            The name of the CommandHandler to remove
+	 *            The name of the command to remove
 	 */
-	public static void remove(String name){
-		CMD_HANDLERS.remove(name);
+	public static synchronized void remove(String name){
+		CommandNode n = CMD_NODES.remove(name);
+
+		if(n != null){
+			n.forEach(name, (path, ch) -> {
+				for(Set<CommandHandler> handlers: OWNED.values()){
+					handlers.remove(ch);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Removes all CommandHandlers of commands owned by the given plugin. This is done automatically when the plugin is
+	 * disabled.
+	 * 
+	 * @param owner
+	 *            The plugin owning the commands
+	 */
+	public static synchronized void removeAll(Plugin owner){
+		Set<CommandHandler> handlers = OWNED.remove(NamespacedRegistry.namespace(owner));
+
+		if(handlers != null){
+			for(CommandHandler ch: handlers){
+				CommandNode n = CMD_NODES.get(ch.getName());
+
+				if(n != null && n.remove(ch)){
+					CMD_NODES.remove(ch.getName());
+				}
+			}
+		}
+	}
+
+	private static Plugin getOwner(CommandHandler ch){
+		if(ch.getCommand() instanceof PluginIdentifiableCommand){
+			return ((PluginIdentifiableCommand) ch.getCommand()).getPlugin();
+		}
+
+		return null;
 	}
 
 	/**
@@ -65,13 +164,60 @@ public class CommandRegistry{
 	 * @return The CommandHandler, if registered or null
 	 */
 	public static CommandHandler get(String name){
-		return CMD_HANDLERS.get(name);
+		CommandNode n = CMD_NODES.get(name);
+		return n == null ? null : n.getHandler();
+	}
+
+	/**
+	 * Returns the CommandHandler, if registered, for the given sub-command path.
+	 * 
+	 * @param name
+	 *            The name of the command
+	 * @param path
+	 *            The literal sub-command names leading to the handler
+	 * @return The CommandHandler, if registered or null
+	 */
+	public static CommandHandler get(String name, String... path){
+		CommandNode n = CMD_NODES.get(name);
+
+		for(int i = 0; n != null && i < path.length; i++){
+			n = n.getChild(path[i]);
+		}
+
+		return n == null ? null : n.getHandler();
+	}
+
+	/**
+	 * Returns the root of the dispatch tree for the given command.
+	 * 
+	 * @param name
+	 *            The name of the command
+	 * @return The root node, if any handler is registered for the command or null
+	 */
+	public static CommandNode getRoot(String name){
+		return CMD_NODES.get(name);
+	}
+
+	/**
+	 * Returns the metrics of all registered CommandHandlers.
+	 * 
+	 * @return The metrics mapped by the command path (e.g. "arena join")
+	 */
+	public static Map<String, CommandMetrics> getMetrics(){
+		Map<String, CommandMetrics> metrics = new LinkedHashMap<>();
+
+		for(Map.Entry<String, CommandNode> e: CMD_NODES.entrySet()){
+			e.getValue().forEach(e.getKey(), (path, ch) -> metrics.put(path, ch.getMetrics()));
+		}
+
+		return metrics;
 	}
 
 	/**
 	 * This method can be called from the
 	 * {@link org.bukkit.plugin.java.JavaPlugin#onCommand(CommandSender, Command, String, String[])
-	 * JavaPlugin.onCommand} method. It searches all registered CommandHandlers for the issued command.
+	 * JavaPlugin.onCommand} method. It resolves the registered CommandHandler (or sub-command handler) for the issued
+	 * command.
 	 * 
 	 * @param sender
 	 *            The sender of the command
@@ -84,13 +230,41 @@ public class CommandRegistry{
 	 * @return True if the command executed successfully
 	 */
 	public static boolean handleCommand(CommandSender sender, Command cmd, String commandLabel, String[] args){
-		CommandHandler ch = get(cmd.getName());
+		CommandNode n = CMD_NODES.get(cmd.getName());
 
-		if(ch == null){
+		if(n == null){
 			return false;
 		}
 
-		return ch.handle(sender, args);
+		return n.dispatch(sender, args);
+	}
+
+	/**
+	 * This method can be called from the
+	 * {@link org.bukkit.plugin.java.JavaPlugin#onTabComplete(CommandSender, Command, String, String[])
+	 * JavaPlugin.onTabComplete} method. It completes the last argument using the registered sub-commands and the
+	 * argument types of the resolved CommandHandler.
+	 * 
+	 * @param sender
+	 *            The sender of the command
+	 * @param cmd
+	 *            The command to complete
+	 * @param commandLabel
+	 *            The alias used
+	 * @param args
+	 *            The arguments to the command, including the one to complete
+	 * @return The completions or null if the command is not registered
+	 */
+	public static List<String> handleTabComplete(CommandSender sender, Command cmd, String commandLabel, String[] args){
+		CommandNode n = CMD_NODES.get(cmd.getName());
+
+		if(n == null){
+			return null;
+		}
+
+		List<String> list = new ArrayList<>();
+		n.complete(sender, args, list);
+		return list;
 	}
 
 }
@@ -1,19 +1,23 @@
 package cf.lukasheinzl.mc.api;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.plugin.Plugin;
 
 import cf.lukasheinzl.mc.api.inventory.APIInventory;
 
 /**
- * This class can be used to manage {@link cf.lukasheinzl.mc.api.inventory.APIInventory APIInventories}.
+ * This class can be used to manage {@link cf.lukasheinzl.mc.api.inventory.APIInventory APIInventories}.<br>
+ * The registry is thread-safe and lookups never block. APIInventories registered for a plugin are kept in the plugin's
+ * namespace (<code>plugin:name</code>) and are removed automatically once the plugin is disabled.
  * 
  * @author Lukas Heinzl
  *
  */
 public class InventoryRegistry{
 
-	private static final Map<String, APIInventory> INVS = new HashMap<>();
+	private static final NamespacedRegistry<APIInventory> INVS = new NamespacedRegistry<>();
 
 	private InventoryRegistry(){
 
@@ -42,6 +46,35 @@ public class InventoryRegistry{
 		INVS.put(name, i);
 	}
 
+	/**
+	 * Registers the APIInventory with the given name in the namespace of the given plugin. It is removed automatically
+	 * once the plugin is disabled.
+	 * 
+	 * @param owner
+	 *            The plugin owning the inventory
+	 * @param name
+	 *            The internal name of this inventory
+	 * @param i
+	 *            The APIInventory to register
+	 * @return The namespaced name of the inventory (<code>plugin:name</code>)
+	 */
+	public static String register(Plugin owner, String name, APIInventory i){
+		return INVS.put(owner, name, i);
+	}
+
+	/**
+	 * Registers all given APIInventories in the namespace of the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the inventories
+	 * @param invs
+	 *            The APIInventories mapped by their internal names
+	 * @see #register(Plugin, String, APIInventory)
+	 */
+	public static void registerAll(Plugin owner, Map<String, ? extends APIInventory> invs){
+		INVS.putAll(owner, invs);
+	}
+
 	/**
 	 * Removes the APIInventory from the registry.
 	 * 
@@ -57,20 +90,67 @@ public class InventoryRegistry{
 	 * Removes the APIInventory from the registry.
 	 * 
 	 * @param name
-	 *            The name of the APIInventory to remove
+	 *            The name of the APIInventory to remove (<code>plugin:name</code> for namespaced ones)
 	 */
 	public static void remove(String name){
 		INVS.remove(name);
 	}
 
+	/**
+	 * Removes the APIInventory with the given name from the namespace of the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the inventory
+	 * @param name
+	 *            The internal name of the inventory
+	 */
+	public static void remove(Plugin owner, String name){
+		INVS.remove(NamespacedRegistry.key(owner, name));
+	}
+
+	/**
+	 * Removes all APIInventories in the namespace of the given plugin. This is done automatically when the plugin is
+	 * disabled.
+	 * 
+	 * @param owner
+	 *            The plugin owning the inventories
+	 */
+	public static void removeAll(Plugin owner){
+		INVS.removeAll(owner);
+	}
+
 	/**
 	 * Returns the APIInventory, if registered, with the given name.
 	 * 
 	 * @param name
-	 *            The name of the APIInventory to search for
+	 *            The name of the APIInventory to search for (<code>plugin:name</code> for namespaced ones)
 	 * @return The APIInventory, if registered or null
 	 */
 	public static APIInventory get(String name){
 		return INVS.get(name);
 	}
+
+	/**
+	 * Returns the APIInventory, if registered, with the given name in the namespace of the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the inventory
+	 * @param name
+	 *            The internal name of the inventory
+	 * @return The APIInventory, if registered or null
+	 */
+	public static APIInventory get(Plugin owner, String name){
+		return INVS.get(NamespacedRegistry.key(owner, name));
+	}
+
+	/**
+	 * Returns the namespaced names of all APIInventories registered for the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the inventories
+	 * @return The namespaced names (<code>plugin:name</code>)
+	 */
+	public static Set<String> getNames(Plugin owner){
+		return INVS.keys(owner);
+	}
 }
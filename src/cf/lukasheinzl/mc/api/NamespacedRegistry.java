@@ -0,0 +1,84 @@
+package cf.lukasheinzl.mc.api;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * This class is the thread-safe storage behind the static registries. Entries can be registered by a plain name or
+ * within the namespace of their owning plugin (<code>plugin:name</code>); namespaced entries are tracked per plugin so
+ * they can be removed together once the plugin is disabled. Reads never block.
+ * 
+ * @author Lukas Heinzl
+ *
+ * @param <V>
+ *            The type of the entries
+ */
+class NamespacedRegistry<V>{
+
+	private final Map<String, V>			entries	= new ConcurrentHashMap<>();
+	private final Map<String, Set<String>>	owned	= new ConcurrentHashMap<>();
+
+	static String namespace(Plugin owner){
+		return owner.getName().toLowerCase(Locale.ROOT);
+	}
+
+	static String key(Plugin owner, String name){
+		return namespace(owner) + ":" + name;
+	}
+
+	void put(String key, V value){
+		entries.put(key, value);
+	}
+
+	String put(Plugin owner, String name, V value){
+		String key = key(owner, name);
+		owned.computeIfAbsent(namespace(owner), k -> ConcurrentHashMap.newKeySet()).add(key);
+		entries.put(key, value);
+		return key;
+	}
+
+	void putAll(Plugin owner, Map<String, ? extends V> values){
+		for(Map.Entry<String, ? extends V> e: values.entrySet()){
+			put(owner, e.getKey(), e.getValue());
+		}
+	}
+
+	V get(String key){
+		return entries.get(key);
+	}
+
+	V remove(String key){
+		int colon = key.indexOf(':');
+
+		if(colon > 0){
+			Set<String> keys = owned.get(key.substring(0, colon));
+
+			if(keys != null){
+				keys.remove(key);
+			}
+		}
+
+		return entries.remove(key);
+	}
+
+	void removeAll(Plugin owner){
+		Set<String> keys = owned.remove(namespace(owner));
+
+		if(keys != null){
+			for(String key: keys){
+				entries.remove(key);
+			}
+		}
+	}
+
+	Set<String> keys(Plugin owner){
+		Set<String> keys = owned.get(namespace(owner));
+		return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+	}
+
+}
@@ -0,0 +1,292 @@
+package cf.lukasheinzl.mc.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import cf.lukasheinzl.mc.api.cmd.CompletionCandidates;
+
+/**
+ * This class keeps a case-insensitive index of the names of all online players. Looking up a player by its name or a
+ * prefix of it only depends on the length of the name and not on the amount of online players.<br>
+ * The index is kept up to date by join and quit events once it has been {@link #enable(Plugin) enabled}, which is done
+ * by the PluginAPI plugin itself. Until then all lookups are delegated to Bukkit. It should only be accessed from the
+ * server thread.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class PlayerIndex implements Listener{
+
+	private static final PlayerIndex	INSTANCE	= new PlayerIndex();
+	private static Node					root;
+	private static CompletionCandidates	names;
+
+	private PlayerIndex(){
+
+	}
+
+	/**
+	 * Enables the index. It is filled with all currently online players and updated by the given plugin's events.
+	 * 
+	 * @param plugin
+	 *            The plugin to register the listener for
+	 */
+	public static void enable(Plugin plugin){
+		root = new Node();
+
+		for(Player p: Bukkit.getOnlinePlayers()){
+			add(p);
+		}
+
+		Bukkit.getPluginManager().registerEvents(INSTANCE, plugin);
+	}
+
+	/**
+	 * Disables the index. All further lookups are delegated to Bukkit.
+	 */
+	public static void disable(){
+		root = null;
+		names = null;
+	}
+
+	/**
+	 * Returns if the index is enabled.
+	 * 
+	 * @return If the index is enabled
+	 */
+	public static boolean isEnabled(){
+		return root != null;
+	}
+
+	/**
+	 * Returns the online player whose name matches the given name, or if there is none, the player with the shortest
+	 * name starting with the given name. Case is ignored. This matches the behavior of
+	 * {@link org.bukkit.Bukkit#getPlayer(String) Bukkit.getPlayer(String)}.
+	 * 
+	 * @param name
+	 *            The name or the beginning of the name of the player
+	 * @return The player or null
+	 */
+	public static Player getPlayer(String name){
+		if(root == null){
+			return Bukkit.getPlayer(name);
+		}
+
+		Node n = find(name);
+		return n == null ? null : n.best;
+	}
+
+	/**
+	 * Returns the online player whose name matches the given name. Case is ignored.
+	 * 
+	 * @param name
+	 *            The name of the player
+	 * @return The player or null
+	 */
+	public static Player getPlayerExact(String name){
+		if(root == null){
+			return Bukkit.getPlayerExact(name);
+		}
+
+		Node n = find(name);
+		return n == null ? null : n.player;
+	}
+
+	/**
+	 * Returns the names of all online players as tab-completion candidates. They are only rebuilt after a player
+	 * joined or quit.
+	 * 
+	 * @return The names of all online players
+	 */
+	public static CompletionCandidates getNames(){
+		if(root == null){
+			List<String> list = new ArrayList<>();
+
+			for(Player p: Bukkit.getOnlinePlayers()){
+				list.add(p.getName());
+			}
+
+			return new CompletionCandidates(list);
+		}
+
+		if(names == null){
+			List<String> list = new ArrayList<>();
+			root.collect(list);
+			names = new CompletionCandidates(list);
+		}
+
+		return names;
+	}
+
+	/**
+	 * Adds the given player to the index.
+	 * 
+	 * @param p
+	 *            The player to add
+	 */
+	public static void add(Player p){
+		if(root == null){
+			return;
+		}
+
+		String name = p.getName();
+		Node n = root;
+		n.offer(p);
+
+		for(int i = 0; i < name.length(); i++){
+			n = n.getOrCreate(Character.toLowerCase(name.charAt(i)));
+			n.offer(p);
+		}
+
+		n.player = p;
+		names = null;
+	}
+
+	/**
+	 * Removes the given player from the index.
+	 * 
+	 * @param p
+	 *            The player to remove
+	 */
+	public static void remove(Player p){
+		if(root == null){
+			return;
+		}
+
+		String name = p.getName();
+		Node[] path = new Node[name.length() + 1];
+		Node n = root;
+		path[0] = n;
+
+		for(int i = 0; i < name.length(); i++){
+			n = n.get(Character.toLowerCase(name.charAt(i)));
+
+			if(n == null){
+				return;
+			}
+
+			path[i + 1] = n;
+		}
+
+		if(n.player != p){
+			return;
+		}
+
+		n.player = null;
+		names = null;
+
+		for(int i = path.length - 1; i >= 0; i--){
+			path[i].recompute();
+
+			if(i > 0 && path[i].best == null){
+				path[i - 1].remove(Character.toLowerCase(name.charAt(i - 1)));
+			}
+		}
+	}
+
+	private static Node find(String name){
+		Node n = root;
+
+		for(int i = 0; n != null && i < name.length(); i++){
+			n = n.get(Character.toLowerCase(name.charAt(i)));
+		}
+
+		return n;
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onJoin(PlayerJoinEvent e){
+		add(e.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e){
+		remove(e.getPlayer());
+	}
+
+	private static class Node{
+
+		private static final char[]	NO_KEYS		= new char[0];
+		private static final Node[]	NO_NODES	= new Node[0];
+
+		private char[]				keys		= NO_KEYS;
+		private Node[]				children	= NO_NODES;
+		private Player				player;
+		private Player				best;
+
+		private Node get(char c){
+			for(int i = 0; i < keys.length; i++){
+				if(keys[i] == c){
+					return children[i];
+				}
+			}
+
+			return null;
+		}
+
+		private Node getOrCreate(char c){
+			Node n = get(c);
+
+			if(n == null){
+				n = new Node();
+				keys = Arrays.copyOf(keys, keys.length + 1);
+				children = Arrays.copyOf(children, children.length + 1);
+				keys[keys.length - 1] = c;
+				children[children.length - 1] = n;
+			}
+
+			return n;
+		}
+
+		private void remove(char c){
+			for(int i = 0; i < keys.length; i++){
+				if(keys[i] == c){
+					int last = keys.length - 1;
+					keys[i] = keys[last];
+					children[i] = children[last];
+					keys = Arrays.copyOf(keys, last);
+					children = Arrays.copyOf(children, last);
+					return;
+				}
+			}
+		}
+
+		private void offer(Player p){
+			if(best == null || p.getName().length() < best.getName().length()){
+				best = p;
+			}
+		}
+
+		private void collect(List<String> out){
+			if(player != null){
+				out.add(player.getName());
+			}
+
+			for(Node n: children){
+				n.collect(out);
+			}
+		}
+
+		private void recompute(){
+			best = player;
+
+			for(Node n: children){
+				if(n.best != null){
+					offer(n.best);
+				}
+			}
+		}
+
+	}
+
+}
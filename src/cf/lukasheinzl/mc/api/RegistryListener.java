@@ -0,0 +1,26 @@
+package cf.lukasheinzl.mc.api;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+
+import cf.lukasheinzl.mc.api.inventory.InventoryRouter;
+
+/**
+ * This class removes everything a plugin registered in the registries once the plugin is disabled.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+class RegistryListener implements Listener{
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPluginDisable(PluginDisableEvent e){
+		CommandRegistry.removeAll(e.getPlugin());
+		InventoryRegistry.removeAll(e.getPlugin());
+		ScoreboardRegistry.removeAll(e.getPlugin());
+		InventoryRouter.removeAll(e.getPlugin());
+	}
+
+}
@@ -1,19 +1,23 @@
 package cf.lukasheinzl.mc.api;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.plugin.Plugin;
 
 import cf.lukasheinzl.mc.api.scoreboard.APIScoreboard;
 
 /**
- * This class can be used to manage {@link cf.lukasheinzl.mc.api.scoreboard.APIScoreboard APIScoreboards}.
+ * This class can be used to manage {@link cf.lukasheinzl.mc.api.scoreboard.APIScoreboard APIScoreboards}.<br>
+ * The registry is thread-safe and lookups never block. APIScoreboards registered for a plugin are kept in the plugin's
+ * namespace (<code>plugin:name</code>) and are removed automatically once the plugin is disabled.
  * 
  * @author Lukas Heinzl
  *
  */
 public class ScoreboardRegistry{
 
-	private static final Map<String, APIScoreboard> SBS = new HashMap<>();
+	private static final NamespacedRegistry<APIScoreboard> SBS = new NamespacedRegistry<>();
 
 	private ScoreboardRegistry(){
 
@@ -31,24 +35,100 @@ public class ScoreboardRegistry{
 		SBS.put(name, s);
 	}
 
+	/**
+	 * Registers the APIScoreboard with the given name in the namespace of the given plugin. It is removed automatically
+	 * once the plugin is disabled.
+	 * 
+	 * @param owner
+	 *            The plugin owning the scoreboard
+	 * @param name
+	 *            The internal name of the scoreboard
+	 * @param s
+	 *            The APIScoreboard to register
+	 * @return The namespaced name of the scoreboard (<code>plugin:name</code>)
+	 */
+	public static String register(Plugin owner, String name, APIScoreboard s){
+		return SBS.put(owner, name, s);
+	}
+
+	/**
+	 * Registers all given APIScoreboards in the namespace of the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the scoreboards
+	 * @param sbs
+	 *            The APIScoreboards mapped by their internal names
+	 * @see #register(Plugin, String, APIScoreboard)
+	 */
+	public static void registerAll(Plugin owner, Map<String, ? extends APIScoreboard> sbs){
+		SBS.putAll(owner, sbs);
+	}
+
 	/**
 	 * Removes the APIScoreboard from the registry.
 	 * 
 	 * @param name
-	 *            The name of the APIScoreboard to remove
+	 *            The name of the APIScoreboard to remove (<code>plugin:name</code> for namespaced ones)
 	 */
 	public static void remove(String name){
 		SBS.remove(name);
 	}
 
+	/**
+	 * Removes the APIScoreboard with the given name from the namespace of the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the scoreboard
+	 * @param name
+	 *            The internal name of the scoreboard
+	 */
+	public static void remove(Plugin owner, String name){
+		SBS.remove(NamespacedRegistry.key(owner, name));
+	}
+
+	/**
+	 * Removes all APIScoreboards in the namespace of the given plugin. This is done automatically when the plugin is
+	 * disabled.
+	 * 
+	 * @param owner
+	 *            The plugin owning the scoreboards
+	 */
+	public static void removeAll(Plugin owner){
+		SBS.removeAll(owner);
+	}
+
 	/**
 	 * Returns the APIScoreboard, if registered, with the given name.
 	 * 
 	 * @param name
-	 *            The name of the APIScoreboard to search for
+	 *            The name of the APIScoreboard to search for (<code>plugin:name</code> for namespaced ones)
 	 * @return The APIScoreboard, if registered or null
 	 */
 	public static APIScoreboard get(String name){
 		return SBS.get(name);
 	}
+
+	/**
+	 * Returns the APIScoreboard, if registered, with the given name in the namespace of the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the scoreboard
+	 * @param name
+	 *            The internal name of the scoreboard
+	 * @return The APIScoreboard, if registered or null
+	 */
+	public static APIScoreboard get(Plugin owner, String name){
+		return SBS.get(NamespacedRegistry.key(owner, name));
+	}
+
+	/**
+	 * Returns the namespaced names of all APIScoreboards registered for the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning the scoreboards
+	 * @return The namespaced names (<code>plugin:name</code>)
+	 */
+	public static Set<String> getNames(Plugin owner){
+		return SBS.keys(owner);
+	}
 }
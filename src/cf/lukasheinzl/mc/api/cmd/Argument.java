@@ -1,5 +1,9 @@
 package cf.lukasheinzl.mc.api.cmd;
 
+import java.util.Collection;
+
+import org.bukkit.command.CommandSender;
+
 /**
  * This interface if the base of all CommandHandler arguments.
  * 
@@ -22,4 +26,49 @@ public interface Argument{
 	 */
 	boolean checkArgument(String arg);
 
+	/**
+	 * This method checks the given argument and stores its parsed value in the given ParsedArguments. The default
+	 * implementation only checks the argument; the raw value is always available through
+	 * {@link cf.lukasheinzl.mc.api.cmd.ParsedArguments#getString(int) getString(int)}.
+	 * 
+	 * @param arg
+	 *            The argument to check
+	 * @param out
+	 *            The ParsedArguments to store the parsed value in
+	 * @param index
+	 *            The position of the argument
+	 * @return True if it fits a certain criteria
+	 */
+	default boolean parseArgument(String arg, ParsedArguments out, int index){
+		return checkArgument(arg);
+	}
+
+	/**
+	 * This method returns the tab-completion candidates for this argument.
+	 * 
+	 * @return The candidates or null if this argument can not be completed
+	 */
+	default CompletionCandidates getCompletions(){
+		return null;
+	}
+
+	/**
+	 * This method adds the tab-completions for the given prefix to the given collection. By default the matching
+	 * {@link #getCompletions() candidates} are added; arguments can override it to hide candidates from the sender.
+	 * 
+	 * @param sender
+	 *            The sender completing the argument or null
+	 * @param prefix
+	 *            The part of the argument typed so far
+	 * @param out
+	 *            The collection to add the completions to
+	 */
+	default void complete(CommandSender sender, String prefix, Collection<String> out){
+		CompletionCandidates c = getCompletions();
+
+		if(c != null){
+			c.complete(prefix, out);
+		}
+	}
+
 }
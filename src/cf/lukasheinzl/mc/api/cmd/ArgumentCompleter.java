@@ -0,0 +1,79 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+/**
+ * This class completes command arguments based on their {@link cf.lukasheinzl.mc.api.cmd.Argument Argument} types.
+ * Every argument provides its own {@link cf.lukasheinzl.mc.api.cmd.Argument#getCompletions() candidates}, so
+ * completing never has to filter a list of all possible values.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ArgumentCompleter implements TabCompleter{
+
+	private final Argument[] arguments;
+
+	/**
+	 * Constructs a new ArgumentCompleter for the given argument types.
+	 * 
+	 * @param arguments
+	 *            The argument types (see {@link cf.lukasheinzl.mc.api.cmd.CommandHandler#getArgumentTypes()})
+	 */
+	public ArgumentCompleter(Argument... arguments){
+		this.arguments = arguments;
+	}
+
+	/**
+	 * Adds the completions for the last of the given arguments to the given collection.
+	 * 
+	 * @param args
+	 *            The arguments to the command
+	 * @param offset
+	 *            The position of the first argument described by the argument types (e.g. after sub-commands)
+	 * @param out
+	 *            The collection to add the completions to
+	 * @see #complete(CommandSender, String[], int, Collection) complete(CommandSender, String[], int, Collection) -
+	 *      CommandSender defaults to null
+	 */
+	public void complete(String[] args, int offset, Collection<String> out){
+		complete(null, args, offset, out);
+	}
+
+	/**
+	 * Adds the completions for the last of the given arguments that are visible to the given sender to the given
+	 * collection.
+	 * 
+	 * @param sender
+	 *            The sender completing the command or null
+	 * @param args
+	 *            The arguments to the command
+	 * @param offset
+	 *            The position of the first argument described by the argument types (e.g. after sub-commands)
+	 * @param out
+	 *            The collection to add the completions to
+	 */
+	public void complete(CommandSender sender, String[] args, int offset, Collection<String> out){
+		int pos = args.length - 1 - offset;
+
+		if(pos < 0 || pos >= arguments.length){
+			return;
+		}
+
+		arguments[pos].complete(sender, args[args.length - 1], out);
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args){
+		List<String> list = new ArrayList<>();
+		complete(sender, args, 0, list);
+		return list;
+	}
+
+}
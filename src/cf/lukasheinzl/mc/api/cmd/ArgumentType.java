@@ -1,7 +1,13 @@
 package cf.lukasheinzl.mc.api.cmd;
 
-import org.bukkit.Bukkit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import cf.lukasheinzl.mc.api.PlayerIndex;
 import net.md_5.bungee.api.ChatColor;
 
 /**
@@ -13,12 +19,18 @@ import net.md_5.bungee.api.ChatColor;
 public enum ArgumentType implements Argument{
 
 	/**
-	 * This represents a whole number.
+	 * This represents a whole number in the range of a long.
 	 */
 	INT("Integer required", ArgumentType::checkInt),
 
 	/**
-	 * This represents a floatingpoint number.
+	 * This represents a whole number in the range of an int, so
+	 * {@link cf.lukasheinzl.mc.api.cmd.ParsedArguments#getInt(int) getInt(int)} returns it unchanged.
+	 */
+	INT32("Integer between " + Integer.MIN_VALUE + " and " + Integer.MAX_VALUE + " required", ArgumentType::checkInt32),
+
+	/**
+	 * This represents a floatingpoint number in decimal notation (e.g. <code>-1.5</code> or <code>2e3</code>).
 	 */
 	FLOAT("Float required", ArgumentType::checkFloat),
 
@@ -33,16 +45,20 @@ public enum ArgumentType implements Argument{
 	String("This message should not be visible", ArgumentType::checkTrue),
 
 	/**
-	 * This represents online players. It will check if the argument matches the name of a currently online player.
+	 * This represents online players. It will check if the argument matches the name (or the beginning of the name) of
+	 * a currently online player using the {@link cf.lukasheinzl.mc.api.PlayerIndex PlayerIndex}. The player is
+	 * available through {@link cf.lukasheinzl.mc.api.cmd.ParsedArguments#getPlayer(int) getPlayer(int)}.
 	 */
 	ONLINE_PLAYER("Name of currently online player required", ArgumentType::checkOnlinePlayer);
 
-	private final String	msg;
-	private final Argument	arg;
+	private static final CompletionCandidates	BOOLEANS	= new CompletionCandidates("true", "false");
+
+	private final String						msg;
+	private final Parser						parser;
 
-	private ArgumentType(String msg, Argument arg){
+	private ArgumentType(String msg, Parser parser){
 		this.msg = msg;
-		this.arg = arg;
+		this.parser = parser;
 	}
 
 	@Override
@@ -52,41 +68,186 @@ public enum ArgumentType implements Argument{
 
 	@Override
 	public boolean checkArgument(String arg){
-		if(this.arg == null){
+		return parseArgument(arg, null, 0);
+	}
+
+	@Override
+	public boolean parseArgument(String arg, ParsedArguments out, int index){
+		if(parser == null){
 			return false;
 		}
 
-		return this.arg.checkArgument(arg);
+		return parser.parse(arg, out, index);
+	}
+
+	@Override
+	public CompletionCandidates getCompletions(){
+		switch(this){
+			case BOOLEAN:
+				return BOOLEANS;
+			case ONLINE_PLAYER:
+				return PlayerIndex.getNames();
+			default:
+				return null;
+		}
+	}
+
+	@Override
+	public void complete(CommandSender sender, String prefix, Collection<String> out){
+		if(this != ONLINE_PLAYER || !(sender instanceof Player)){
+			Argument.super.complete(sender, prefix, out);
+			return;
+		}
+
+		// like Bukkit's default completer, players the sender can not see (e.g. vanished ones) are left out
+		List<String> names = new ArrayList<>();
+		PlayerIndex.getNames().complete(prefix, names);
+
+		for(String name: names){
+			Player p = PlayerIndex.getPlayerExact(name);
+
+			if(p != null && ((Player) sender).canSee(p)){
+				out.add(name);
+			}
+		}
 	}
 
-	private static boolean checkTrue(String arg){
+	private static boolean checkTrue(String arg, ParsedArguments out, int index){
 		return true;
 	}
 
-	private static boolean checkInt(String arg){
-		try{
-			Long.parseLong(arg);
-			return true;
-		} catch(NumberFormatException e){
+	private static boolean checkInt(String arg, ParsedArguments out, int index){
+		int len = arg.length();
+
+		if(len == 0){
 			return false;
 		}
+
+		// accumulates negatively like Long.parseLong so Long.MIN_VALUE does not overflow
+		boolean negative = arg.charAt(0) == '-';
+		int i = negative || arg.charAt(0) == '+' ? 1 : 0;
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long result = 0;
+
+		if(i == len){
+			return false;
+		}
+
+		for(; i < len; i++){
+			int digit = arg.charAt(i) - '0';
+
+			if(digit < 0 || digit > 9 || result < limit / 10){
+				return false;
+			}
+
+			result *= 10;
+
+			if(result < limit + digit){
+				return false;
+			}
+
+			result -= digit;
+		}
+
+		if(out != null){
+			out.setLong(index, negative ? result : -result);
+		}
+
+		return true;
 	}
 
-	private static boolean checkFloat(String arg){
-		try{
-			Double.parseDouble(arg);
-			return true;
-		} catch(NumberFormatException e){
+	private static boolean checkInt32(String arg, ParsedArguments out, int index){
+		ParsedArguments parsed = out == null ? new ParsedArguments(1) : out;
+		int i = out == null ? 0 : index;
+
+		return checkInt(arg, parsed, i) && parsed.isInt(i);
+	}
+
+	private static boolean checkFloat(String arg, ParsedArguments out, int index){
+		int len = arg.length();
+		int i = len > 0 && (arg.charAt(0) == '-' || arg.charAt(0) == '+') ? 1 : 0;
+		int digits = 0;
+		boolean dot = false;
+
+		for(; i < len; i++){
+			char c = arg.charAt(i);
+
+			if(c >= '0' && c <= '9'){
+				digits++;
+			} else if(c == '.' && !dot){
+				dot = true;
+			} else{
+				break;
+			}
+		}
+
+		if(digits == 0){
+			return false;
+		}
+
+		if(i < len && (arg.charAt(i) == 'e' || arg.charAt(i) == 'E')){
+			i++;
+
+			if(i < len && (arg.charAt(i) == '-' || arg.charAt(i) == '+')){
+				i++;
+			}
+
+			int start = i;
+
+			while(i < len && arg.charAt(i) >= '0' && arg.charAt(i) <= '9'){
+				i++;
+			}
+
+			if(i == start){
+				return false;
+			}
+		}
+
+		if(i != len){
 			return false;
 		}
+
+		// the syntax has been checked above, so this cannot throw
+		if(out != null){
+			out.setDouble(index, Double.parseDouble(arg));
+		}
+
+		return true;
 	}
 
-	private static boolean checkBoolean(String arg){
-		return arg.equalsIgnoreCase("true") || arg.equalsIgnoreCase("false");
+	private static boolean checkBoolean(String arg, ParsedArguments out, int index){
+		boolean value = arg.equalsIgnoreCase("true");
+
+		if(!value && !arg.equalsIgnoreCase("false")){
+			return false;
+		}
+
+		if(out != null){
+			out.setBoolean(index, value);
+		}
+
+		return true;
 	}
 
-	private static boolean checkOnlinePlayer(String arg){
-		return null != Bukkit.getPlayer(arg);
+	private static boolean checkOnlinePlayer(String arg, ParsedArguments out, int index){
+		Player p = PlayerIndex.getPlayer(arg);
+
+		if(p == null){
+			return false;
+		}
+
+		if(out != null){
+			out.setObject(index, p);
+		}
+
+		return true;
+	}
+
+	@FunctionalInterface
+	private interface Parser{
+
+		boolean parse(String arg, ParsedArguments out, int index);
+
 	}
 
 }
@@ -0,0 +1,121 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import cf.lukasheinzl.mc.api.API;
+
+/**
+ * This class represents a bounded thread pool that {@link cf.lukasheinzl.mc.api.cmd.CommandHandler CommandHandlers} can
+ * use to execute commands off the server thread (see {@link CommandHandler#setAsync(CommandExecutor, int)}). Tasks
+ * that do not fit into the queue are rejected instead of piling up.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class CommandExecutor{
+
+	private static final AtomicInteger	POOL_COUNT	= new AtomicInteger();
+	private static CommandExecutor		defaultExecutor;
+
+	private final ThreadPoolExecutor	executor;
+
+	/**
+	 * Constructs a new CommandExecutor with the given amount of threads and queue size.
+	 * 
+	 * @param threads
+	 *            The maximum amount of threads
+	 * @param queueSize
+	 *            The maximum amount of commands waiting for a thread
+	 */
+	public CommandExecutor(int threads, int queueSize){
+		int pool = POOL_COUNT.incrementAndGet();
+		AtomicInteger count = new AtomicInteger();
+
+		executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+			Thread t = new Thread(r, "PluginAPI-Command-" + pool + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the shared CommandExecutor. It is created on first use with one thread per available processor (at least
+	 * two) and a queue of 256 commands.
+	 * 
+	 * @return The shared CommandExecutor
+	 */
+	public static synchronized CommandExecutor getDefault(){
+		if(defaultExecutor == null){
+			defaultExecutor = new CommandExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()), 256);
+		}
+
+		return defaultExecutor;
+	}
+
+	/**
+	 * Shuts down the shared CommandExecutor, if it was created. Queued commands are still executed.
+	 */
+	public static synchronized void shutdownDefault(){
+		if(defaultExecutor != null){
+			defaultExecutor.shutdown();
+			defaultExecutor = null;
+		}
+	}
+
+	/**
+	 * Submits the given task.
+	 * 
+	 * @param task
+	 *            The task to execute
+	 * @return True if the task was accepted, false if the queue is full or the executor was shut down
+	 */
+	public boolean submit(Runnable task){
+		try{
+			executor.execute(task);
+			return true;
+		} catch(RejectedExecutionException e){
+			return false;
+		}
+	}
+
+	/**
+	 * Shuts down this CommandExecutor. Queued commands are still executed.
+	 */
+	public void shutdown(){
+		executor.shutdown();
+	}
+
+	/**
+	 * Executes the given task on the server thread during the next tick.
+	 * 
+	 * @param task
+	 *            The task to execute
+	 */
+	public static void runSync(Runnable task){
+		Bukkit.getScheduler().runTask(JavaPlugin.getPlugin(API.class), task);
+	}
+
+	/**
+	 * Executes the given task on the server thread during the next tick.
+	 * 
+	 * @param <T>
+	 *            The result type of the task
+	 * @param task
+	 *            The task to execute
+	 * @return A Future to wait for the result of the task
+	 */
+	public static <T> Future<T> callSync(Callable<T> task){
+		return Bukkit.getScheduler().callSyncMethod(JavaPlugin.getPlugin(API.class), task);
+	}
+
+}
@@ -1,19 +1,39 @@
 package cf.lukasheinzl.mc.api.cmd;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
+import net.md_5.bungee.api.ChatColor;
+
 /**
  * This class can be used to handle commands. It can be registered in the {@link cf.lukasheinzl.mc.api.CommandRegistry
- * CommandRegistry}.
+ * CommandRegistry}.<br>
+ * By default commands are executed on the server thread. Handlers doing heavy work (e.g. database access) can be
+ * executed asynchronously using {@link #setAsync(CommandExecutor, int)}; Bukkit methods should then be called through
+ * {@link #runSync(Runnable)} or {@link #callSync(Callable)}.
  * 
  * @author Lukas Heinzl
  *
  */
 public abstract class CommandHandler{
 
-	private final Command		cmd;
-	private final Argument[]	arguments;
+	private final Command			cmd;
+	private final Argument[]		arguments;
+	private final ParsedArguments	parsed;
+	private final ArgumentCompleter	completer;
+	private final CommandMetrics	metrics	= new CommandMetrics();
+	private boolean					executing;
+	private boolean					async;
+	private CommandExecutor			executor;
+	private Semaphore				permits;
+	private String					queueFullMessage	= ChatColor.RED + "This command is busy, please try again later";
+	private RateLimit				rateLimit;
 
 	/**
 	 * Constructs a new CommandHandler for the given command and with the given argument types.
@@ -26,10 +46,13 @@ public abstract class CommandHandler{
 	public CommandHandler(Command cmd, Argument... arguments){
 		this.cmd = cmd;
 		this.arguments = arguments;
+		this.parsed = new ParsedArguments(arguments.length);
+		this.completer = new ArgumentCompleter(arguments);
 	}
 
 	/**
-	 * This method checks if the arguments match the argument types both in terms of count and type.
+	 * This method checks if the arguments match the argument types both in terms of count and type. Every argument is
+	 * parsed only once; the parsed values are handed to {@link #handleCommand(CommandSender, ParsedArguments)}.
 	 * 
 	 * @param sender
 	 *            The sender of the command
@@ -38,20 +61,95 @@ public abstract class CommandHandler{
 	 * @return True if the command executed successfully
 	 */
 	public boolean handle(CommandSender sender, String[] args){
-		for(int i = 0; i < arguments.length; i++){
-			if(i >= args.length && arguments[i] != Argument.OPTIONAL){
-				return false;
-			} else if(arguments[i] == Argument.OPTIONAL){
-				continue;
+		// a command dispatched from within this handler must not overwrite the arguments in use
+		ParsedArguments pa = executing ? new ParsedArguments(arguments.length) : parsed;
+		boolean nested = executing;
+		long start = System.nanoTime();
+
+		pa.reset(args);
+		executing = true;
+
+		try{
+			for(int i = 0; i < arguments.length; i++){
+				if(i >= args.length && arguments[i] != Argument.OPTIONAL){
+					metrics.recordInvalid(System.nanoTime() - start);
+					return false;
+				} else if(arguments[i] == Argument.OPTIONAL){
+					continue;
+				}
+
+				if(!arguments[i].parseArgument(args[i], pa, i)){
+					sender.sendMessage(arguments[i].toString() + args[i]);
+					metrics.recordInvalid(System.nanoTime() - start);
+					return false;
+				}
 			}
 
-			if(!arguments[i].checkArgument(args[i])){
-				sender.sendMessage(arguments[i].toString() + args[i]);
-				return false;
+			if(async){
+				return handleAsync(sender, pa.copy());
+			}
+
+			boolean result = false;
+
+			try{
+				result = handleCommand(sender, pa);
+				return result;
+			} finally{
+				metrics.record(System.nanoTime() - start, result);
+			}
+		} finally{
+			pa.clear();
+			executing = nested;
+		}
+	}
+
+	private boolean handleAsync(CommandSender sender, ParsedArguments args){
+		if(!permits.tryAcquire()){
+			sender.sendMessage(queueFullMessage);
+			metrics.recordRejected();
+			return true;
+		}
+
+		// the shared executor is looked up every time, it is replaced after PluginAPI was reloaded
+		CommandExecutor executor = this.executor == null ? CommandExecutor.getDefault() : this.executor;
+		Semaphore permits = this.permits;
+		boolean submitted = executor.submit(() -> {
+			long start = System.nanoTime();
+			boolean result = false;
+
+			try{
+				result = handleCommand(sender, args);
+			} catch(RuntimeException e){
+				Bukkit.getLogger().log(Level.SEVERE, "Unhandled exception executing command " + getName() + " asynchronously", e);
+			} finally{
+				metrics.record(System.nanoTime() - start, result);
+				permits.release();
 			}
+		});
+
+		if(!submitted){
+			permits.release();
+			sender.sendMessage(queueFullMessage);
+			metrics.recordRejected();
 		}
 
-		return handleCommand(sender, args);
+		return true;
+	}
+
+	/**
+	 * This method handles the command once it is proven that the arguments are of the correct types. The default
+	 * implementation calls {@link #handleCommand(CommandSender, String[])} with the raw arguments; handlers using the
+	 * parsed values extend {@link cf.lukasheinzl.mc.api.cmd.ParsedCommandHandler ParsedCommandHandler} instead.
+	 * 
+	 * @param sender
+	 *            The sender of the command
+	 * @param args
+	 *            The parsed arguments to the command (only valid during this call for synchronous commands, see
+	 *            {@link cf.lukasheinzl.mc.api.cmd.ParsedArguments#copy() copy()})
+	 * @return True if the command executed successfully
+	 */
+	protected boolean handleCommand(CommandSender sender, ParsedArguments args){
+		return handleCommand(sender, args.getRaw());
 	}
 
 	/**
@@ -65,6 +163,128 @@ public abstract class CommandHandler{
 	 */
 	protected abstract boolean handleCommand(CommandSender sender, String[] args);
 
+	/**
+	 * Executes this command asynchronously on the shared {@link CommandExecutor#getDefault() CommandExecutor}. It is
+	 * looked up for every execution, so the command keeps working after the shared executor was replaced.
+	 * 
+	 * @param maxConcurrent
+	 *            The maximum amount of executions of this command at the same time
+	 * @return This CommandHandler - allows method chaining
+	 * @see #setAsync(CommandExecutor, int)
+	 */
+	public CommandHandler setAsync(int maxConcurrent){
+		this.executor = null;
+		this.async = true;
+		this.permits = new Semaphore(maxConcurrent);
+		return this;
+	}
+
+	/**
+	 * Executes this command asynchronously on the given CommandExecutor. The arguments are still validated on the
+	 * server thread. If the command is already executed maxConcurrent times or the executor's queue is full, the
+	 * sender receives the {@link #setQueueFullMessage(String) queue-full message} instead. The result of
+	 * {@link #handleCommand(CommandSender, ParsedArguments)} is ignored for asynchronous commands.
+	 * 
+	 * @param executor
+	 *            The CommandExecutor to use or null to execute this command on the server thread again (the shared
+	 *            CommandExecutor is used by {@link #setAsync(int)})
+	 * @param maxConcurrent
+	 *            The maximum amount of executions of this command at the same time
+	 * @return This CommandHandler - allows method chaining
+	 */
+	public CommandHandler setAsync(CommandExecutor executor, int maxConcurrent){
+		this.executor = executor;
+		this.async = executor != null;
+		this.permits = async ? new Semaphore(maxConcurrent) : null;
+		return this;
+	}
+
+	/**
+	 * Returns if this command is executed asynchronously.
+	 * 
+	 * @return If this command is executed asynchronously
+	 */
+	public boolean isAsync(){
+		return async;
+	}
+
+	/**
+	 * Returns the message sent if an asynchronous command can not be executed right now.
+	 * 
+	 * @return The queue-full message
+	 */
+	public String getQueueFullMessage(){
+		return queueFullMessage;
+	}
+
+	/**
+	 * Sets the message sent if an asynchronous command can not be executed right now.
+	 * 
+	 * @param queueFullMessage
+	 *            The queue-full message
+	 * @return This CommandHandler - allows method chaining
+	 */
+	public CommandHandler setQueueFullMessage(String queueFullMessage){
+		this.queueFullMessage = queueFullMessage;
+		return this;
+	}
+
+	/**
+	 * Returns the rate limit of this command.
+	 * 
+	 * @return The rate limit or null if this command is not limited
+	 */
+	public RateLimit getRateLimit(){
+		return rateLimit;
+	}
+
+	/**
+	 * Sets the rate limit of this command. It is enforced by the {@link cf.lukasheinzl.mc.api.CommandRegistry
+	 * CommandRegistry} before the arguments are checked.
+	 * 
+	 * @param rateLimit
+	 *            The rate limit or null to remove it
+	 * @return This CommandHandler - allows method chaining
+	 */
+	public CommandHandler setRateLimit(RateLimit rateLimit){
+		this.rateLimit = rateLimit;
+		return this;
+	}
+
+	/**
+	 * Executes the given task on the server thread. This can be used by asynchronous commands to call Bukkit methods.
+	 * 
+	 * @param task
+	 *            The task to execute
+	 * @see cf.lukasheinzl.mc.api.cmd.CommandExecutor#runSync(Runnable) CommandExecutor.runSync(Runnable)
+	 */
+	protected void runSync(Runnable task){
+		CommandExecutor.runSync(task);
+	}
+
+	/**
+	 * Executes the given task on the server thread. This can be used by asynchronous commands to call Bukkit methods.
+	 * 
+	 * @param <T>
+	 *            The result type of the task
+	 * @param task
+	 *            The task to execute
+	 * @return A Future to wait for the result of the task
+	 * @see cf.lukasheinzl.mc.api.cmd.CommandExecutor#callSync(Callable) CommandExecutor.callSync(Callable)
+	 */
+	protected <T> Future<T> callSync(Callable<T> task){
+		return CommandExecutor.callSync(task);
+	}
+
+	/**
+	 * Returns the command that is being handled.
+	 * 
+	 * @return The command that is being handled
+	 */
+	public Command getCommand(){
+		return cmd;
+	}
+
 	/**
 	 * Returns the name of the command.
 	 * 
@@ -84,4 +304,22 @@ public abstract class CommandHandler{
 		return arguments;
 	}
 
+	/**
+	 * Returns the metrics of this command.
+	 * 
+	 * @return The metrics of this command
+	 */
+	public CommandMetrics getMetrics(){
+		return metrics;
+	}
+
+	/**
+	 * Returns the ArgumentCompleter for the argument types.
+	 * 
+	 * @return The ArgumentCompleter for the argument types
+	 */
+	public ArgumentCompleter getCompleter(){
+		return completer;
+	}
+
 }
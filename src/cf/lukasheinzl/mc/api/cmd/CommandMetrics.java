@@ -0,0 +1,206 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects the invocation counts and execution times of a {@link cf.lukasheinzl.mc.api.cmd.CommandHandler
+ * CommandHandler}. Counters are striped so recording from several threads does not contend. Execution times are kept
+ * in a logarithmic histogram with 8 buckets per power of two (about 12% precision), so recording is a constant-time
+ * increment and percentiles can be read at any time.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class CommandMetrics{
+
+	private static final int		SUB_BITS	= 3;
+	private static final int		SUB_COUNT	= 1 << SUB_BITS;
+	private static final int		BUCKETS		= SUB_COUNT + (64 - SUB_BITS) * SUB_COUNT;
+
+	private final LongAdder			invocations			= new LongAdder();
+	private final LongAdder			validationFailures	= new LongAdder();
+	private final LongAdder			handlerFailures		= new LongAdder();
+	private final LongAdder			rejections			= new LongAdder();
+	private final LongAdder			totalNanos			= new LongAdder();
+	private final AtomicLong		maxNanos			= new AtomicLong();
+	private final AtomicLongArray	histogram			= new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Records an execution of the command.
+	 * 
+	 * @param nanos
+	 *            The execution time in nanoseconds
+	 * @param success
+	 *            If the command executed successfully
+	 */
+	public void record(long nanos, boolean success){
+		if(!success){
+			handlerFailures.increment();
+		}
+
+		recordTime(nanos);
+	}
+
+	/**
+	 * Records an invocation of the command that failed because of invalid arguments.
+	 * 
+	 * @param nanos
+	 *            The time spent checking the arguments in nanoseconds
+	 */
+	public void recordInvalid(long nanos){
+		validationFailures.increment();
+		recordTime(nanos);
+	}
+
+	/**
+	 * Records an invocation of the command that was rejected before it was executed (e.g. because of a rate limit or a
+	 * full queue).
+	 */
+	public void recordRejected(){
+		invocations.increment();
+		rejections.increment();
+	}
+
+	private void recordTime(long nanos){
+		nanos = Math.max(0, nanos);
+		invocations.increment();
+		totalNanos.add(nanos);
+		histogram.incrementAndGet(bucket(nanos));
+
+		long max = maxNanos.get();
+
+		while(nanos > max && !maxNanos.compareAndSet(max, nanos)){
+			max = maxNanos.get();
+		}
+	}
+
+	private static int bucket(long nanos){
+		if(nanos < SUB_COUNT){
+			return (int) nanos;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+		return SUB_COUNT + shift * SUB_COUNT + (int) (nanos >>> shift) - SUB_COUNT;
+	}
+
+	private static long upperBound(int bucket){
+		if(bucket < SUB_COUNT){
+			return bucket;
+		}
+
+		int shift = (bucket - SUB_COUNT) / SUB_COUNT;
+		long mantissa = SUB_COUNT + (bucket - SUB_COUNT) % SUB_COUNT;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * Returns the amount of invocations.
+	 * 
+	 * @return The amount of invocations
+	 */
+	public long getInvocations(){
+		return invocations.sum();
+	}
+
+	/**
+	 * Returns the amount of invocations that failed because of invalid arguments.
+	 * 
+	 * @return The amount of invocations that failed because of invalid arguments
+	 */
+	public long getValidationFailures(){
+		return validationFailures.sum();
+	}
+
+	/**
+	 * Returns the amount of executions that did not succeed (returned false or threw an exception).
+	 * 
+	 * @return The amount of executions that did not succeed
+	 */
+	public long getHandlerFailures(){
+		return handlerFailures.sum();
+	}
+
+	/**
+	 * Returns the amount of invocations that were rejected before they were executed.
+	 * 
+	 * @return The amount of rejected invocations
+	 */
+	public long getRejections(){
+		return rejections.sum();
+	}
+
+	/**
+	 * Returns the total execution time.
+	 * 
+	 * @return The total execution time in nanoseconds
+	 */
+	public long getTotalNanos(){
+		return totalNanos.sum();
+	}
+
+	/**
+	 * Returns the longest execution time.
+	 * 
+	 * @return The longest execution time in nanoseconds
+	 */
+	public long getMaxNanos(){
+		return maxNanos.get();
+	}
+
+	/**
+	 * Returns the average execution time.
+	 * 
+	 * @return The average execution time in nanoseconds
+	 */
+	public long getMeanNanos(){
+		long count = invocations.sum() - rejections.sum();
+		return count <= 0 ? 0 : totalNanos.sum() / count;
+	}
+
+	/**
+	 * Returns the execution time that the given fraction of all executions did not exceed.
+	 * 
+	 * @param percentile
+	 *            The fraction of executions (e.g. 0.99)
+	 * @return The execution time in nanoseconds (rounded up to the precision of the histogram)
+	 */
+	public long getPercentileNanos(double percentile){
+		long total = 0;
+
+		for(int i = 0; i < BUCKETS; i++){
+			total += histogram.get(i);
+		}
+
+		long target = (long) Math.ceil(total * percentile);
+		long count = 0;
+
+		for(int i = 0; i < BUCKETS; i++){
+			count += histogram.get(i);
+
+			if(count >= target && count > 0){
+				return Math.min(upperBound(i), getMaxNanos());
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Resets all counters.
+	 */
+	public void reset(){
+		invocations.reset();
+		validationFailures.reset();
+		handlerFailures.reset();
+		rejections.reset();
+		totalNanos.reset();
+		maxNanos.set(0);
+
+		for(int i = 0; i < BUCKETS; i++){
+			histogram.set(i, 0);
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * This class represents a node of a command dispatch tree. Every node can have literal sub-commands (e.g.
+ * <code>join</code> in <code>/arena join &lt;name&gt;</code>) and a {@link cf.lukasheinzl.mc.api.cmd.CommandHandler
+ * CommandHandler} whose argument types describe the typed arguments following the literals.<br>
+ * The tree is built once on registration, so dispatching only walks the literal arguments and then hands the
+ * remaining arguments to the handler of the deepest matching node.<br>
+ * Nodes can be read from any thread while they are modified; modifications have to be synchronized externally (the
+ * {@link cf.lukasheinzl.mc.api.CommandRegistry CommandRegistry} does this).
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class CommandNode{
+
+	private final String					literal;
+	private final Map<String, CommandNode>	children	= new ConcurrentHashMap<>();
+	private volatile CommandHandler			handler;
+	private volatile CompletionCandidates	literals	= CompletionCandidates.EMPTY;
+
+	/**
+	 * Constructs a new CommandNode for the given literal.
+	 * 
+	 * @param literal
+	 *            The literal of this node (the command name for root nodes)
+	 */
+	public CommandNode(String literal){
+		this.literal = literal.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Returns the literal of this node.
+	 * 
+	 * @return The literal of this node
+	 */
+	public String getLiteral(){
+		return literal;
+	}
+
+	/**
+	 * Returns the CommandHandler of this node.
+	 * 
+	 * @return The CommandHandler of this node or null
+	 */
+	public CommandHandler getHandler(){
+		return handler;
+	}
+
+	/**
+	 * Sets the CommandHandler of this node.
+	 * 
+	 * @param handler
+	 *            The CommandHandler of this node
+	 */
+	public void setHandler(CommandHandler handler){
+		this.handler = handler;
+	}
+
+	/**
+	 * Returns the child node for the given literal.
+	 * 
+	 * @param literal
+	 *            The literal of the child (case-insensitive)
+	 * @return The child node or null
+	 */
+	public CommandNode getChild(String literal){
+		return children.get(literal.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Returns the child node for the given literal path, creating all missing nodes.
+	 * 
+	 * @param path
+	 *            The literals leading to the node (case-insensitive)
+	 * @return The node at the end of the path
+	 */
+	public CommandNode getOrCreate(String... path){
+		CommandNode n = this;
+
+		for(String s: path){
+			CommandNode parent = n;
+			n = n.children.get(s.toLowerCase(Locale.ROOT));
+
+			if(n == null){
+				n = new CommandNode(s);
+				parent.children.put(n.literal, n);
+				parent.literals = new CompletionCandidates(parent.children.keySet());
+			}
+		}
+
+		return n;
+	}
+
+	/**
+	 * Returns the child nodes of this node.
+	 * 
+	 * @return The child nodes mapped by their literals
+	 */
+	public Map<String, CommandNode> getChildren(){
+		return children;
+	}
+
+	/**
+	 * Removes the given CommandHandler from this node and all of its children. Nodes left without a handler and
+	 * children are removed as well.
+	 * 
+	 * @param ch
+	 *            The CommandHandler to remove
+	 * @return True if this node is empty afterwards
+	 */
+	public boolean remove(CommandHandler ch){
+		if(handler == ch){
+			handler = null;
+		}
+
+		if(children.values().removeIf(c -> c.remove(ch))){
+			literals = new CompletionCandidates(children.keySet());
+		}
+
+		return isEmpty();
+	}
+
+	/**
+	 * Returns the literals of all child nodes as tab-completion candidates.
+	 * 
+	 * @return The literals of all child nodes
+	 */
+	public CompletionCandidates getLiterals(){
+		return literals;
+	}
+
+	/**
+	 * Adds the completions for the last of the given arguments to the given collection. These are the matching
+	 * sub-commands and the completions of the handler's argument type at this position.
+	 * 
+	 * @param args
+	 *            The arguments to the command
+	 * @param out
+	 *            The collection to add the completions to
+	 * @see #complete(CommandSender, String[], Collection) complete(CommandSender, String[], Collection) - CommandSender
+	 *      defaults to null
+	 */
+	public void complete(String[] args, Collection<String> out){
+		complete(null, args, out);
+	}
+
+	/**
+	 * Adds the completions for the last of the given arguments that are visible to the given sender to the given
+	 * collection.
+	 * 
+	 * @param sender
+	 *            The sender completing the command or null
+	 * @param args
+	 *            The arguments to the command
+	 * @param out
+	 *            The collection to add the completions to
+	 */
+	public void complete(CommandSender sender, String[] args, Collection<String> out){
+		if(args.length == 0){
+			return;
+		}
+
+		CommandNode n = this;
+		CommandHandler target = handler;
+		int offset = 0;
+		int last = args.length - 1;
+
+		for(int i = 0; i < last; i++){
+			n = n.children.isEmpty() ? null : n.getChild(args[i]);
+
+			if(n == null){
+				break;
+			}
+
+			CommandHandler h = n.handler;
+
+			if(h != null){
+				target = h;
+				offset = i + 1;
+			}
+		}
+
+		if(n != null && !n.children.isEmpty()){
+			n.getLiterals().complete(args[last], out);
+		}
+
+		if(target != null){
+			target.getCompleter().complete(sender, args, offset, out);
+		}
+	}
+
+	/**
+	 * Passes all handlers of this node and its children to the given consumer, together with their command path (e.g.
+	 * "arena join").
+	 * 
+	 * @param path
+	 *            The path leading to this node (including its literal)
+	 * @param consumer
+	 *            The consumer to pass the handlers to
+	 */
+	public void forEach(String path, BiConsumer<String, CommandHandler> consumer){
+		CommandHandler h = handler;
+
+		if(h != null){
+			consumer.accept(path, h);
+		}
+
+		for(CommandNode n: children.values()){
+			n.forEach(path + " " + n.literal, consumer);
+		}
+	}
+
+	/**
+	 * Returns if this node has neither a handler nor children.
+	 * 
+	 * @return If this node has neither a handler nor children
+	 */
+	public boolean isEmpty(){
+		return handler == null && children.isEmpty();
+	}
+
+	/**
+	 * Resolves the handler for the given arguments and executes it. The literal arguments are consumed in a single
+	 * pass; the handler of the deepest node that has one receives the arguments following its literals. The handler's
+	 * {@link cf.lukasheinzl.mc.api.cmd.RateLimit RateLimit} is enforced before its arguments are checked.
+	 * 
+	 * @param sender
+	 *            The sender of the command
+	 * @param args
+	 *            The arguments to the command
+	 * @return True if the command executed successfully
+	 */
+	public boolean dispatch(CommandSender sender, String[] args){
+		CommandNode n = this;
+		CommandHandler target = handler;
+		int offset = 0;
+
+		for(int i = 0; i < args.length; i++){
+			n = n.children.isEmpty() ? null : n.getChild(args[i]);
+
+			if(n == null){
+				break;
+			}
+
+			CommandHandler h = n.handler;
+
+			if(h != null){
+				target = h;
+				offset = i + 1;
+			}
+		}
+
+		if(target == null){
+			return false;
+		}
+
+		RateLimit limit = target.getRateLimit();
+
+		if(limit != null && !limit.tryAcquire(sender)){
+			target.getMetrics().recordRejected();
+			return true;
+		}
+
+		return target.handle(sender, offset == 0 ? args : Arrays.copyOfRange(args, offset, args.length));
+	}
+
+}
@@ -0,0 +1,138 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * This class represents an immutable, sorted set of tab-completion candidates. Candidates matching a prefix are found
+ * by a binary search for the start of the matching range, so completing does not depend on the amount of candidates.
+ * Case is ignored.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class CompletionCandidates{
+
+	/**
+	 * This represents an empty set of candidates.
+	 */
+	public static final CompletionCandidates	EMPTY	= new CompletionCandidates();
+
+	private final String[]						values;
+	private final String[]						keys;
+
+	/**
+	 * Constructs a new CompletionCandidates object containing the given values.
+	 * 
+	 * @param values
+	 *            The candidates
+	 */
+	public CompletionCandidates(String... values){
+		this.values = values.clone();
+		Arrays.sort(this.values, (a, b) -> a.toLowerCase(Locale.ROOT).compareTo(b.toLowerCase(Locale.ROOT)));
+		this.keys = new String[values.length];
+
+		for(int i = 0; i < keys.length; i++){
+			keys[i] = this.values[i].toLowerCase(Locale.ROOT);
+		}
+	}
+
+	/**
+	 * Constructs a new CompletionCandidates object containing the given values.
+	 * 
+	 * @param values
+	 *            The candidates
+	 * @see #CompletionCandidates(String...)
+	 */
+	public CompletionCandidates(Collection<String> values){
+		this(values.toArray(new String[values.size()]));
+	}
+
+	/**
+	 * Constructs a new CompletionCandidates object containing the lower case names of all constants of the given enum.
+	 * 
+	 * @param <E>
+	 *            The type of the enum
+	 * @param type
+	 *            The class of the enum
+	 * @return The newly created CompletionCandidates
+	 */
+	public static <E extends Enum<E>> CompletionCandidates ofEnum(Class<E> type){
+		E[] constants = type.getEnumConstants();
+		String[] names = new String[constants.length];
+
+		for(int i = 0; i < names.length; i++){
+			names[i] = constants[i].name().toLowerCase(Locale.ROOT);
+		}
+
+		return new CompletionCandidates(names);
+	}
+
+	/**
+	 * Returns the amount of candidates.
+	 * 
+	 * @return The amount of candidates
+	 */
+	public int size(){
+		return values.length;
+	}
+
+	/**
+	 * Returns the candidate at the given position (in sorted order).
+	 * 
+	 * @param index
+	 *            The position of the candidate
+	 * @return The candidate
+	 */
+	public String get(int index){
+		return values[index];
+	}
+
+	/**
+	 * Returns the position of the given value.
+	 * 
+	 * @param value
+	 *            The value to search for (case-insensitive)
+	 * @return The position of the value or -1 if it is not a candidate
+	 */
+	public int indexOf(String value){
+		String key = value.toLowerCase(Locale.ROOT);
+		int i = lowerBound(key);
+		return i < keys.length && keys[i].equals(key) ? i : -1;
+	}
+
+	/**
+	 * Adds all candidates starting with the given prefix to the given collection.
+	 * 
+	 * @param prefix
+	 *            The prefix to complete (case-insensitive)
+	 * @param out
+	 *            The collection to add the candidates to
+	 */
+	public void complete(String prefix, Collection<String> out){
+		String key = prefix.toLowerCase(Locale.ROOT);
+
+		for(int i = lowerBound(key); i < keys.length && keys[i].startsWith(key); i++){
+			out.add(values[i]);
+		}
+	}
+
+	private int lowerBound(String key){
+		int low = 0;
+		int high = keys.length;
+
+		while(low < high){
+			int mid = (low + high) >>> 1;
+
+			if(keys[mid].compareTo(key) < 0){
+				low = mid + 1;
+			} else{
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+}
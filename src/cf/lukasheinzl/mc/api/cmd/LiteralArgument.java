@@ -0,0 +1,95 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.Locale;
+
+import net.md_5.bungee.api.ChatColor;
+
+/**
+ * This class represents an argument that has to be one of a fixed set of values (e.g. the constants of an enum). The
+ * values are also used for tab-completion.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class LiteralArgument implements Argument{
+
+	private final CompletionCandidates	values;
+	private final Object[]				objects;
+
+	/**
+	 * Constructs a new LiteralArgument accepting the given values.
+	 * 
+	 * @param values
+	 *            The accepted values (case-insensitive)
+	 */
+	public LiteralArgument(String... values){
+		this(values, values);
+	}
+
+	private LiteralArgument(String[] names, Object[] objects){
+		this.values = new CompletionCandidates(names);
+		this.objects = new Object[names.length];
+
+		for(int i = 0; i < names.length; i++){
+			this.objects[values.indexOf(names[i])] = objects[i];
+		}
+	}
+
+	/**
+	 * Constructs a new LiteralArgument accepting the names of all constants of the given enum. The parsed constant is
+	 * available through {@link cf.lukasheinzl.mc.api.cmd.ParsedArguments#getEnum(int, Class) getEnum(int, Class)}.
+	 * 
+	 * @param <E>
+	 *            The type of the enum
+	 * @param type
+	 *            The class of the enum
+	 * @return The newly created LiteralArgument
+	 */
+	public static <E extends Enum<E>> LiteralArgument ofEnum(Class<E> type){
+		E[] constants = type.getEnumConstants();
+		String[] names = new String[constants.length];
+
+		for(int i = 0; i < names.length; i++){
+			names[i] = constants[i].name().toLowerCase(Locale.ROOT);
+		}
+
+		return new LiteralArgument(names, constants);
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder sb = new StringBuilder();
+
+		for(int i = 0; i < values.size(); i++){
+			sb.append(i == 0 ? "" : ", ").append(values.get(i));
+		}
+
+		return ChatColor.RED + "One of " + sb + " required" + ChatColor.RESET + ": ";
+	}
+
+	@Override
+	public boolean checkArgument(String arg){
+		return values.indexOf(arg) >= 0;
+	}
+
+	@Override
+	public boolean parseArgument(String arg, ParsedArguments out, int index){
+		int i = values.indexOf(arg);
+
+		if(i < 0){
+			return false;
+		}
+
+		if(out != null){
+			out.setObject(index, objects[i]);
+		}
+
+		return true;
+	}
+
+	@Override
+	public CompletionCandidates getCompletions(){
+		return values;
+	}
+
+}
@@ -0,0 +1,275 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.Arrays;
+
+import org.bukkit.entity.Player;
+
+/**
+ * This class holds the arguments of a command after they have been validated by their
+ * {@link cf.lukasheinzl.mc.api.cmd.Argument Arguments}. Numbers and booleans are parsed once during validation and kept
+ * as primitives, so {@link cf.lukasheinzl.mc.api.cmd.CommandHandler CommandHandlers} do not have to parse them again.
+ * <br>
+ * Instances are reused by their CommandHandler and are only valid during the execution of the command. Use
+ * {@link #copy()} to keep them any longer.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ParsedArguments{
+
+	private static final String[]	NO_ARGS	= new String[0];
+
+	private String[]				raw		= NO_ARGS;
+	private long[]					values;
+	private Object[]				objects;
+
+	/**
+	 * Constructs a new ParsedArguments object with room for the given amount of parsed values.
+	 * 
+	 * @param capacity
+	 *            The amount of parsed values
+	 */
+	public ParsedArguments(int capacity){
+		values = new long[capacity];
+	}
+
+	/**
+	 * Prepares this object for the given arguments. All previously parsed values are discarded.
+	 * 
+	 * @param args
+	 *            The raw arguments to the command
+	 */
+	public void reset(String[] args){
+		raw = args;
+
+		if(objects != null){
+			Arrays.fill(objects, null);
+		}
+	}
+
+	/**
+	 * Discards the arguments and all parsed values so no references are kept after the command has been executed.
+	 */
+	public void clear(){
+		reset(NO_ARGS);
+	}
+
+	/**
+	 * Returns the raw arguments to the command.
+	 * 
+	 * @return The raw arguments to the command
+	 */
+	public String[] getRaw(){
+		return raw;
+	}
+
+	/**
+	 * Returns the amount of arguments.
+	 * 
+	 * @return The amount of arguments
+	 */
+	public int size(){
+		return raw.length;
+	}
+
+	/**
+	 * Returns if an argument was given at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return If an argument was given at the given position
+	 */
+	public boolean has(int index){
+		return index >= 0 && index < raw.length;
+	}
+
+	/**
+	 * Returns the raw argument at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The raw argument or null if there is no argument at this position
+	 */
+	public String getString(int index){
+		return has(index) ? raw[index] : null;
+	}
+
+	/**
+	 * Returns the parsed whole number at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed whole number
+	 */
+	public long getLong(int index){
+		return values[index];
+	}
+
+	/**
+	 * Returns the parsed whole number at the given position as an int. {@link ArgumentType#INT} accepts every long, so
+	 * a number that does not fit into an int is truncated like a cast; use {@link ArgumentType#INT32} to reject such
+	 * numbers while validating, or check them with {@link #isInt(int)}.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed whole number, truncated to an int
+	 * @see #getLong(int)
+	 */
+	public int getInt(int index){
+		return (int) values[index];
+	}
+
+	/**
+	 * Returns if the parsed whole number at the given position fits into an int.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return If the parsed whole number fits into an int
+	 */
+	public boolean isInt(int index){
+		return values[index] == (int) values[index];
+	}
+
+	/**
+	 * Returns the parsed floatingpoint number at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed floatingpoint number
+	 */
+	public double getDouble(int index){
+		return Double.longBitsToDouble(values[index]);
+	}
+
+	/**
+	 * Returns the parsed floatingpoint number at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed floatingpoint number
+	 */
+	public float getFloat(int index){
+		return (float) getDouble(index);
+	}
+
+	/**
+	 * Returns the parsed boolean at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed boolean
+	 */
+	public boolean getBoolean(int index){
+		return values[index] != 0;
+	}
+
+	/**
+	 * Returns the parsed player at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed player or null
+	 */
+	public Player getPlayer(int index){
+		Object o = getObject(index);
+		return o instanceof Player ? (Player) o : null;
+	}
+
+	/**
+	 * Returns the parsed object at the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @return The parsed object or null
+	 */
+	public Object getObject(int index){
+		return objects == null || index >= objects.length ? null : objects[index];
+	}
+
+	/**
+	 * Returns the parsed enum constant at the given position (see
+	 * {@link cf.lukasheinzl.mc.api.cmd.LiteralArgument#ofEnum(Class) LiteralArgument.ofEnum(Class)}).
+	 * 
+	 * @param <E>
+	 *            The type of the enum
+	 * @param index
+	 *            The position of the argument
+	 * @param type
+	 *            The class of the enum
+	 * @return The parsed enum constant or null
+	 */
+	public <E extends Enum<E>> E getEnum(int index, Class<E> type){
+		Object o = getObject(index);
+		return type.isInstance(o) ? type.cast(o) : null;
+	}
+
+	/**
+	 * Stores the parsed whole number for the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @param value
+	 *            The parsed value
+	 */
+	public void setLong(int index, long value){
+		values[index] = value;
+	}
+
+	/**
+	 * Stores the parsed floatingpoint number for the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @param value
+	 *            The parsed value
+	 */
+	public void setDouble(int index, double value){
+		values[index] = Double.doubleToRawLongBits(value);
+	}
+
+	/**
+	 * Stores the parsed boolean for the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @param value
+	 *            The parsed value
+	 */
+	public void setBoolean(int index, boolean value){
+		values[index] = value ? 1 : 0;
+	}
+
+	/**
+	 * Stores the parsed object for the given position.
+	 * 
+	 * @param index
+	 *            The position of the argument
+	 * @param value
+	 *            The parsed value
+	 */
+	public void setObject(int index, Object value){
+		if(objects == null){
+			objects = new Object[values.length];
+		}
+
+		objects[index] = value;
+	}
+
+	/**
+	 * Creates a copy of this object that stays valid after the command has been executed.
+	 * 
+	 * @return A new ParsedArguments object with the same contents as this one
+	 */
+	public ParsedArguments copy(){
+		ParsedArguments pa = new ParsedArguments(values.length);
+		pa.raw = raw;
+		System.arraycopy(values, 0, pa.values, 0, values.length);
+
+		if(objects != null){
+			pa.objects = objects.clone();
+		}
+
+		return pa;
+	}
+
+}
@@ -0,0 +1,57 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+/**
+ * This class can be used to handle commands using the parsed arguments. Subclasses only implement
+ * {@link #handleCommand(CommandSender, ParsedArguments)}, which receives the values parsed while validating the
+ * arguments, so they do not have to parse the raw arguments again.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public abstract class ParsedCommandHandler extends CommandHandler{
+
+	/**
+	 * Constructs a new ParsedCommandHandler for the given command and with the given argument types.
+	 * 
+	 * @param cmd
+	 *            The command to handle (see {@link org.bukkit.Bukkit#getPluginCommand(String)})
+	 * @param arguments
+	 *            The argument types
+	 */
+	public ParsedCommandHandler(Command cmd, Argument... arguments){
+		super(cmd, arguments);
+	}
+
+	/**
+	 * This method handles the command once it is proven that the arguments are of the correct types.
+	 * 
+	 * @param sender
+	 *            The sender of the command
+	 * @param args
+	 *            The parsed arguments to the command (only valid during this call for synchronous commands, see
+	 *            {@link cf.lukasheinzl.mc.api.cmd.ParsedArguments#copy() copy()})
+	 * @return True if the command executed successfully
+	 */
+	@Override
+	protected abstract boolean handleCommand(CommandSender sender, ParsedArguments args);
+
+	/**
+	 * Validates and parses the given raw arguments and handles them with
+	 * {@link #handleCommand(CommandSender, ParsedArguments)}.
+	 * 
+	 * @param sender
+	 *            The sender of the command
+	 * @param args
+	 *            The arguments to the command
+	 * @return True if the command executed successfully
+	 * @see #handle(CommandSender, String[])
+	 */
+	@Override
+	protected final boolean handleCommand(CommandSender sender, String[] args){
+		return handle(sender, args);
+	}
+
+}
@@ -0,0 +1,232 @@
+package cf.lukasheinzl.mc.api.cmd;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import net.md_5.bungee.api.ChatColor;
+
+/**
+ * This class represents a rate limit for a {@link cf.lukasheinzl.mc.api.cmd.CommandHandler CommandHandler}. Every
+ * sender (identified by its UUID) has its own token bucket that allows a certain amount of uses per period; an
+ * optional global limit applies to all senders together. The limit is enforced by the
+ * {@link cf.lukasheinzl.mc.api.CommandRegistry CommandRegistry} before the arguments are checked.<br>
+ * The state of a bucket is a single timestamp. Buckets that have refilled completely are dropped, so only senders that
+ * used the command recently take up memory.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class RateLimit{
+
+	private final long		interval;
+	private final long		tolerance;
+	private final Buckets	buckets			= new Buckets();
+	private long			globalInterval;
+	private long			globalTolerance;
+	private long			globalTat;
+	private String			message			= ChatColor.RED + "Please wait {seconds}s before using this command again";
+
+	/**
+	 * Constructs a new RateLimit allowing every sender the given amount of uses per period.
+	 * 
+	 * @param uses
+	 *            The amount of uses per period (also the amount of uses allowed at once)
+	 * @param period
+	 *            The length of the period
+	 * @param unit
+	 *            The time unit of the period
+	 */
+	public RateLimit(int uses, long period, TimeUnit unit){
+		this.interval = Math.max(1, unit.toNanos(period) / uses);
+		this.tolerance = interval * (uses - 1);
+	}
+
+	/**
+	 * Constructs a new RateLimit allowing every sender one use per period.
+	 * 
+	 * @param period
+	 *            The length of the cooldown
+	 * @param unit
+	 *            The time unit of the cooldown
+	 * @return The newly created RateLimit
+	 * @see #RateLimit(int, long, TimeUnit)
+	 */
+	public static RateLimit cooldown(long period, TimeUnit unit){
+		return new RateLimit(1, period, unit);
+	}
+
+	/**
+	 * Sets a limit for all senders together.
+	 * 
+	 * @param uses
+	 *            The amount of uses per period (also the amount of uses allowed at once)
+	 * @param period
+	 *            The length of the period
+	 * @param unit
+	 *            The time unit of the period
+	 * @return This RateLimit - allows method chaining
+	 */
+	public RateLimit setGlobalLimit(int uses, long period, TimeUnit unit){
+		globalInterval = Math.max(1, unit.toNanos(period) / uses);
+		globalTolerance = globalInterval * (uses - 1);
+		return this;
+	}
+
+	/**
+	 * Returns the message sent to senders that have to wait.
+	 * 
+	 * @return The cooldown message
+	 */
+	public String getMessage(){
+		return message;
+	}
+
+	/**
+	 * Sets the message sent to senders that have to wait. The placeholder <code>{seconds}</code> is replaced by the
+	 * remaining seconds.
+	 * 
+	 * @param message
+	 *            The cooldown message
+	 * @return This RateLimit - allows method chaining
+	 */
+	public RateLimit setMessage(String message){
+		this.message = message;
+		return this;
+	}
+
+	/**
+	 * Takes a token for the given sender if one is available. Otherwise the cooldown message is sent to the sender.
+	 * Senders without an UUID (e.g. the console) are only subject to the global limit.
+	 * 
+	 * @param sender
+	 *            The sender of the command
+	 * @return True if the sender may use the command
+	 */
+	public synchronized boolean tryAcquire(CommandSender sender){
+		long now = System.nanoTime();
+		UUID id = sender instanceof Entity ? ((Entity) sender).getUniqueId() : null;
+		long tat = id == null ? now : later(buckets.get(id, now), now);
+		long wait = tat - tolerance - now;
+
+		if(globalInterval > 0){
+			wait = Math.max(wait, later(globalTat, now) - globalTolerance - now);
+		}
+
+		if(wait > 0){
+			long seconds = (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+			sender.sendMessage(message.replace("{seconds}", Long.toString(seconds)));
+			return false;
+		}
+
+		if(id != null){
+			buckets.put(id, tat + interval, now);
+		}
+
+		if(globalInterval > 0){
+			globalTat = later(globalTat, now) + globalInterval;
+		}
+
+		return true;
+	}
+
+	private static long later(long a, long b){
+		// nanoTime values may overflow, so they are only compared by their difference
+		return a - b > 0 ? a : b;
+	}
+
+	/**
+	 * Returns the amount of senders whose bucket has not refilled completely yet (at most).
+	 * 
+	 * @return The amount of tracked senders
+	 */
+	public synchronized int getTrackedSenders(){
+		return buckets.size;
+	}
+
+	/**
+	 * An open-addressing table mapping UUIDs to the theoretical arrival time of their next use. Entries whose time has
+	 * passed are equal to absent ones and are dropped whenever the table is rebuilt.
+	 */
+	private static class Buckets{
+
+		private long[]	most	= new long[16];
+		private long[]	least	= new long[16];
+		private long[]	tats	= new long[16];
+		private int		size;
+
+		private int slot(long m, long l){
+			long h = (m ^ l) * 0x9E3779B97F4A7C15L;
+			int mask = tats.length - 1;
+			int i = (int) (h >>> 32) & mask;
+
+			while(tats[i] != 0 && (most[i] != m || least[i] != l)){
+				i = (i + 1) & mask;
+			}
+
+			return i;
+		}
+
+		private long get(UUID id, long now){
+			int i = slot(id.getMostSignificantBits(), id.getLeastSignificantBits());
+			return tats[i] == 0 ? now : tats[i];
+		}
+
+		private void put(UUID id, long tat, long now){
+			long m = id.getMostSignificantBits();
+			long l = id.getLeastSignificantBits();
+			int i = slot(m, l);
+
+			if(tats[i] == 0){
+				if((size + 1) * 2 > tats.length){
+					rebuild(now);
+					i = slot(m, l);
+				}
+
+				most[i] = m;
+				least[i] = l;
+				size++;
+			}
+
+			tats[i] = tat == 0 ? 1 : tat;
+		}
+
+		private void rebuild(long now){
+			long[] oldMost = most;
+			long[] oldLeast = least;
+			long[] oldTats = tats;
+			int live = 0;
+
+			for(long tat: oldTats){
+				if(tat != 0 && tat - now > 0){
+					live++;
+				}
+			}
+
+			int capacity = 16;
+
+			while(capacity < (live + 1) * 4){
+				capacity <<= 1;
+			}
+
+			most = new long[capacity];
+			least = new long[capacity];
+			tats = new long[capacity];
+			size = 0;
+
+			for(int j = 0; j < oldTats.length; j++){
+				if(oldTats[j] != 0 && oldTats[j] - now > 0){
+					int i = slot(oldMost[j], oldLeast[j]);
+					most[i] = oldMost[j];
+					least[i] = oldLeast[j];
+					tats[i] = oldTats[j];
+					size++;
+				}
+			}
+		}
+
+	}
+
+}
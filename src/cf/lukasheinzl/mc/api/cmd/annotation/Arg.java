@@ -0,0 +1,29 @@
+package cf.lukasheinzl.mc.api.cmd.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation marks a parameter of a {@link Command @Command} method as a command argument. The arguments are
+ * parsed in the order of the parameters. The type of the parameter determines the argument type:
+ * <ul>
+ * <li>String - {@link cf.lukasheinzl.mc.api.cmd.ArgumentType#String ArgumentType.String}</li>
+ * <li>int, long - {@link cf.lukasheinzl.mc.api.cmd.ArgumentType#INT ArgumentType.INT}</li>
+ * <li>float, double - {@link cf.lukasheinzl.mc.api.cmd.ArgumentType#FLOAT ArgumentType.FLOAT}</li>
+ * <li>boolean - {@link cf.lukasheinzl.mc.api.cmd.ArgumentType#BOOLEAN ArgumentType.BOOLEAN}</li>
+ * <li>Player - {@link cf.lukasheinzl.mc.api.cmd.ArgumentType#ONLINE_PLAYER ArgumentType.ONLINE_PLAYER}</li>
+ * <li>any enum - {@link cf.lukasheinzl.mc.api.cmd.LiteralArgument#ofEnum(Class) LiteralArgument.ofEnum}</li>
+ * </ul>
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.PARAMETER)
+public @interface Arg{
+
+}
@@ -0,0 +1,41 @@
+package cf.lukasheinzl.mc.api.cmd.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation marks a method as the handler of a command. The {@link CommandProcessor CommandProcessor} generates a
+ * {@link cf.lukasheinzl.mc.api.cmd.CommandHandler CommandHandler} for it at compile time, so no reflection is used when
+ * the command is executed.<br>
+ * The first parameter of the method may be the {@link org.bukkit.command.CommandSender CommandSender} (or a subtype like
+ * {@link org.bukkit.entity.Player Player}), all other parameters have to be annotated with {@link Arg @Arg}. The method
+ * may return a boolean (see {@link cf.lukasheinzl.mc.api.cmd.CommandHandler#handle(org.bukkit.command.CommandSender, String[])
+ * handle}) or nothing.
+ * 
+ * <pre>
+ * &#64;Command("arena join")
+ * void join(Player p, &#64;Arg String arena){
+ * 	...
+ * }
+ * </pre>
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Command{
+
+	/**
+	 * The name of the command followed by the sub-command path, separated by spaces (e.g. <code>"arena join"</code>).
+	 * The command has to be defined in the plugin.yml.
+	 * 
+	 * @return The command and sub-command path
+	 */
+	String value();
+
+}
@@ -0,0 +1,453 @@
+package cf.lukasheinzl.mc.api.cmd.annotation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * This annotation processor generates the {@link cf.lukasheinzl.mc.api.cmd.CommandHandler CommandHandlers} for all
+ * {@link Command @Command} methods. For every class containing such methods a class named
+ * <code>&lt;Class&gt;_Commands</code> is generated in the same package. Its <code>register</code> method creates one
+ * CommandHandler per method and registers it in the {@link cf.lukasheinzl.mc.api.CommandRegistry CommandRegistry}:
+ * 
+ * <pre>
+ * Arena_Commands.register(plugin, arena);
+ * </pre>
+ * 
+ * The generated handlers call the methods directly with the values parsed by their argument types, so executing a
+ * command does not involve any reflection.<br>
+ * The processor is registered as a service, so it runs automatically when the API is on the classpath of javac.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class CommandProcessor extends AbstractProcessor{
+
+	private static final String	PKG	= "cf.lukasheinzl.mc.api.";
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes(){
+		return Collections.singleton(Command.class.getCanonicalName());
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion(){
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env){
+		Map<TypeElement, List<ExecutableElement>> methods = new LinkedHashMap<>();
+
+		for(Element e: env.getElementsAnnotatedWith(Command.class)){
+			if(e.getKind() != ElementKind.METHOD){
+				continue;
+			}
+
+			methods.computeIfAbsent((TypeElement) e.getEnclosingElement(), k -> new ArrayList<>()).add((ExecutableElement) e);
+		}
+
+		for(Map.Entry<TypeElement, List<ExecutableElement>> e: methods.entrySet()){
+			generate(e.getKey(), e.getValue());
+		}
+
+		return true;
+	}
+
+	private void generate(TypeElement type, List<ExecutableElement> methods){
+		List<Handler> handlers = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		Map<String, ExecutableElement> paths = new HashMap<>();
+		boolean valid = checkAccessible(type);
+		boolean needsTarget = false;
+
+		for(ExecutableElement m: methods){
+			Handler h = createHandler(m, names);
+
+			if(h == null){
+				valid = false;
+				continue;
+			}
+
+			// a second handler for the same command path would silently replace the first one when registered
+			String path = h.command + (h.path.length == 0 ? "" : " " + String.join(" ", h.path).toLowerCase(Locale.ROOT));
+			ExecutableElement other = paths.putIfAbsent(path, m);
+
+			if(other != null){
+				error(m, "@Command \"" + path + "\" is already handled by " + other.getSimpleName() + "()");
+				valid = false;
+			} else{
+				handlers.add(h);
+				needsTarget |= !h.isStatic;
+			}
+		}
+
+		if(!valid){
+			return;
+		}
+
+		String pkg = getPackage(type).getQualifiedName().toString();
+		String name = getFlatName(type) + "_Commands";
+		String target = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+		try(Writer w = processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? name : pkg + "." + name, type).openWriter()){
+			w.write(new Generator(pkg, name, target, needsTarget, handlers).toString());
+		} catch(IOException ex){
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not generate " + name + ": " + ex, type);
+		}
+	}
+
+	private boolean checkAccessible(TypeElement type){
+		for(Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()){
+			if(e.getModifiers().contains(Modifier.PRIVATE)){
+				error(type, "Classes containing @Command methods must not be private");
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private Handler createHandler(ExecutableElement m, Set<String> names){
+		String[] path = m.getAnnotation(Command.class).value().trim().split("\\s+");
+
+		if(path[0].isEmpty()){
+			error(m, "@Command requires a command name");
+			return null;
+		}
+
+		if(m.getModifiers().contains(Modifier.PRIVATE)){
+			error(m, "@Command methods must not be private");
+			return null;
+		}
+
+		TypeKind ret = m.getReturnType().getKind();
+
+		if(ret != TypeKind.BOOLEAN && ret != TypeKind.VOID){
+			error(m, "@Command methods have to return boolean or void");
+			return null;
+		}
+
+		for(TypeMirror t: m.getThrownTypes()){
+			if(!isSubtype(t, "java.lang.RuntimeException") && !isSubtype(t, "java.lang.Error")){
+				error(m, "@Command methods must not throw checked exceptions");
+				return null;
+			}
+		}
+
+		Handler h = new Handler();
+		h.method = m.getSimpleName().toString();
+		h.command = path[0].toLowerCase(Locale.ROOT);
+		h.path = new String[path.length - 1];
+		h.returnsBoolean = ret == TypeKind.BOOLEAN;
+		h.isStatic = m.getModifiers().contains(Modifier.STATIC);
+		h.name = Character.toUpperCase(h.method.charAt(0)) + h.method.substring(1) + "Handler";
+
+		System.arraycopy(path, 1, h.path, 0, h.path.length);
+
+		for(int i = 2; !names.add(h.name); i++){
+			h.name = Character.toUpperCase(h.method.charAt(0)) + h.method.substring(1) + "Handler" + i;
+		}
+
+		List<? extends VariableElement> params = m.getParameters();
+
+		for(int i = 0; i < params.size(); i++){
+			VariableElement p = params.get(i);
+			TypeMirror t = p.asType();
+
+			if(p.getAnnotation(Arg.class) != null){
+				String[] arg = getArgument(t, h.arguments.size());
+
+				if(arg == null){
+					error(p, "Unsupported argument type " + t);
+					return null;
+				}
+
+				if(arg[1].startsWith("args.getInt(")){
+					// ArgumentType.INT accepts the whole long range
+					h.ints.add(h.arguments.size());
+				}
+
+				h.arguments.add(arg[0]);
+				h.values.add(arg[1]);
+			} else if(i == 0 && isSubtype(t, "org.bukkit.command.CommandSender")){
+				h.sender = processingEnv.getTypeUtils().erasure(t).toString();
+			} else{
+				error(p, "Parameters of @Command methods have to be annotated with @Arg (only the first one may be the CommandSender)");
+				return null;
+			}
+		}
+
+		return h;
+	}
+
+	private String[] getArgument(TypeMirror t, int index){
+		String type = PKG + "cmd.ArgumentType.";
+
+		switch(t.getKind()){
+			case INT:
+				return new String[]{type + "INT", "args.getInt(" + index + ")"};
+			case LONG:
+				return new String[]{type + "INT", "args.getLong(" + index + ")"};
+			case FLOAT:
+				return new String[]{type + "FLOAT", "args.getFloat(" + index + ")"};
+			case DOUBLE:
+				return new String[]{type + "FLOAT", "args.getDouble(" + index + ")"};
+			case BOOLEAN:
+				return new String[]{type + "BOOLEAN", "args.getBoolean(" + index + ")"};
+			case DECLARED:
+				break;
+			default:
+				return null;
+		}
+
+		Element e = ((DeclaredType) t).asElement();
+		String name = ((TypeElement) e).getQualifiedName().toString();
+
+		if(e.getKind() == ElementKind.ENUM){
+			return new String[]{PKG + "cmd.LiteralArgument.ofEnum(" + name + ".class)", "args.getEnum(" + index + ", " + name + ".class)"};
+		}
+
+		switch(name){
+			case "java.lang.String":
+				return new String[]{type + "String", "args.getString(" + index + ")"};
+			case "java.lang.Integer":
+				return new String[]{type + "INT", "args.getInt(" + index + ")"};
+			case "java.lang.Long":
+				return new String[]{type + "INT", "args.getLong(" + index + ")"};
+			case "java.lang.Float":
+				return new String[]{type + "FLOAT", "args.getFloat(" + index + ")"};
+			case "java.lang.Double":
+				return new String[]{type + "FLOAT", "args.getDouble(" + index + ")"};
+			case "java.lang.Boolean":
+				return new String[]{type + "BOOLEAN", "args.getBoolean(" + index + ")"};
+			case "org.bukkit.entity.Player":
+				return new String[]{type + "ONLINE_PLAYER", "args.getPlayer(" + index + ")"};
+			default:
+				return null;
+		}
+	}
+
+	private boolean isSubtype(TypeMirror t, String name){
+		TypeElement e = processingEnv.getElementUtils().getTypeElement(name);
+		Types types = processingEnv.getTypeUtils();
+		return e != null && types.isAssignable(types.erasure(t), types.erasure(e.asType()));
+	}
+
+	private static PackageElement getPackage(Element e){
+		while(!(e instanceof PackageElement)){
+			e = e.getEnclosingElement();
+		}
+
+		return (PackageElement) e;
+	}
+
+	private static String getFlatName(TypeElement type){
+		Element outer = type.getEnclosingElement();
+
+		if(outer instanceof TypeElement){
+			return getFlatName((TypeElement) outer) + "_" + type.getSimpleName();
+		}
+
+		return type.getSimpleName().toString();
+	}
+
+	private void error(Element e, String msg){
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, e);
+	}
+
+	private static class Handler{
+
+		private String				name;
+		private String				method;
+		private String				command;
+		private String[]			path;
+		private String				sender;
+		private boolean				returnsBoolean;
+		private boolean				isStatic;
+		private final List<String>	arguments	= new ArrayList<>();
+		private final List<String>	values		= new ArrayList<>();
+		private final List<Integer>	ints		= new ArrayList<>();
+
+	}
+
+	private static class Generator{
+
+		private final StringBuilder	sb	= new StringBuilder();
+
+		private Generator(String pkg, String name, String target, boolean needsTarget, List<Handler> handlers){
+			String targetParam = needsTarget ? ", " + target + " target" : "";
+
+			if(!pkg.isEmpty()){
+				line(0, "package " + pkg + ";").line(0, "");
+			}
+
+			line(0, "/**");
+			line(0, " * Generated by {@link " + PKG + "cmd.annotation.CommandProcessor CommandProcessor} for the @Command methods of");
+			line(0, " * {@link " + target + "}.");
+			line(0, " */");
+			line(0, "public final class " + name + "{").line(0, "");
+			line(1, "private " + name + "(){").line(0, "").line(1, "}").line(0, "");
+
+			line(1, "/**");
+			line(1, " * Creates the CommandHandlers for all @Command methods and registers them in the CommandRegistry. Commands");
+			line(1, " * that are not defined in the plugin.yml of the given plugin are skipped.");
+			line(1, " * ");
+			line(1, " * @param plugin");
+			line(1, " *            The plugin defining the commands");
+
+			if(needsTarget){
+				line(1, " * @param target");
+				line(1, " *            The object to call the @Command methods on");
+			}
+
+			line(1, " * @return The registered CommandHandlers in the order of the methods (null for skipped commands)");
+			line(1, " */");
+			line(1, "public static " + PKG + "cmd.CommandHandler[] register(org.bukkit.plugin.java.JavaPlugin plugin" + targetParam + "){");
+			line(2, PKG + "cmd.CommandHandler[] handlers = new " + PKG + "cmd.CommandHandler[" + handlers.size() + "];");
+			line(2, "org.bukkit.command.PluginCommand cmd;").line(0, "");
+
+			for(int i = 0; i < handlers.size(); i++){
+				Handler h = handlers.get(i);
+				StringBuilder path = new StringBuilder();
+
+				for(String s: h.path){
+					path.append(", ").append(literal(s));
+				}
+
+				line(2, "if((cmd = command(plugin, " + literal(h.command) + ")) != null){");
+				line(3, "handlers[" + i + "] = new " + h.name + "(cmd" + (h.isStatic ? "" : ", target") + ");");
+				line(3, PKG + "CommandRegistry.register(handlers[" + i + "]" + path + ");");
+				line(2, "}").line(0, "");
+			}
+
+			line(2, "return handlers;");
+			line(1, "}").line(0, "");
+
+			line(1, "private static org.bukkit.command.PluginCommand command(org.bukkit.plugin.java.JavaPlugin plugin, String name){");
+			line(2, "org.bukkit.command.PluginCommand cmd = plugin.getCommand(name);").line(0, "");
+			line(2, "if(cmd == null){");
+			line(3, "plugin.getLogger().warning(\"Command \" + name + \" is not defined in the plugin.yml\");");
+			line(2, "}").line(0, "");
+			line(2, "return cmd;");
+			line(1, "}").line(0, "");
+
+			for(Handler h: handlers){
+				handler(target, h);
+			}
+
+			line(0, "}");
+		}
+
+		private void handler(String target, Handler h){
+			line(1, "private static final class " + h.name + " extends " + PKG + "cmd.ParsedCommandHandler{").line(0, "");
+
+			if(!h.isStatic){
+				line(2, "private final " + target + " target;").line(0, "");
+			}
+
+			line(2, h.name + "(org.bukkit.command.Command cmd" + (h.isStatic ? "" : ", " + target + " target") + "){");
+			line(3, "super(cmd" + (h.arguments.isEmpty() ? "" : ", " + String.join(", ", h.arguments)) + ");");
+
+			if(!h.isStatic){
+				line(3, "this.target = target;");
+			}
+
+			line(2, "}").line(0, "");
+			line(2, "@Override");
+			line(2, "protected boolean handleCommand(org.bukkit.command.CommandSender sender, " + PKG + "cmd.ParsedArguments args){");
+
+			List<String> params = new ArrayList<>();
+
+			if(h.sender != null && !h.sender.equals("org.bukkit.command.CommandSender")){
+				String who = h.sender.equals("org.bukkit.entity.Player") ? "players" : "a " + h.sender.substring(h.sender.lastIndexOf('.') + 1);
+
+				line(3, "if(!(sender instanceof " + h.sender + ")){");
+				line(4, "sender.sendMessage(net.md_5.bungee.api.ChatColor.RED + \"This command can only be executed by " + who + "\");");
+				line(4, "return true;");
+				line(3, "}").line(0, "");
+				params.add("(" + h.sender + ") sender");
+			} else if(h.sender != null){
+				params.add("sender");
+			}
+
+			for(int i: h.ints){
+				line(3, "if(!args.isInt(" + i + ")){");
+				line(4, "sender.sendMessage(net.md_5.bungee.api.ChatColor.RED + \"Number out of range\" + net.md_5.bungee.api.ChatColor.RESET + \": \" + args.getString("
+						+ i + "));");
+				line(4, "return false;");
+				line(3, "}").line(0, "");
+			}
+
+			params.addAll(h.values);
+
+			String call = (h.isStatic ? target : "target") + "." + h.method + "(" + String.join(", ", params) + ")";
+
+			if(h.returnsBoolean){
+				line(3, "return " + call + ";");
+			} else{
+				line(3, call + ";");
+				line(3, "return true;");
+			}
+
+			line(2, "}").line(0, "");
+			line(1, "}").line(0, "");
+		}
+
+		private static String literal(String s){
+			StringBuilder sb = new StringBuilder("\"");
+
+			for(int i = 0; i < s.length(); i++){
+				char c = s.charAt(i);
+
+				if(c == '"' || c == '\\'){
+					sb.append('\\');
+				}
+
+				sb.append(c);
+			}
+
+			return sb.append('"').toString();
+		}
+
+		private Generator line(int indent, String s){
+			for(int i = 0; i < indent && !s.isEmpty(); i++){
+				sb.append('\t');
+			}
+
+			sb.append(s).append('\n');
+			return this;
+		}
+
+		@Override
+		public String toString(){
+			return sb.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * This package contains annotations that generate command handlers at compile time.
+ */
+package cf.lukasheinzl.mc.api.cmd.annotation;
\ No newline at end of file
@@ -1,5 +1,7 @@
 package cf.lukasheinzl.mc.api.inventory;
 
+import java.util.Objects;
+
 import org.bukkit.enchantments.Enchantment;
 
 /**
@@ -57,4 +59,23 @@ public class APIEnchantment{
 		return ignoreLevelRestriction;
 	}
 
+	@Override
+	public boolean equals(Object o){
+		if(this == o){
+			return true;
+		}
+
+		if(!(o instanceof APIEnchantment)){
+			return false;
+		}
+
+		APIEnchantment ae = (APIEnchantment) o;
+		return level == ae.level && ignoreLevelRestriction == ae.ignoreLevelRestriction && Objects.equals(e, ae.e);
+	}
+
+	@Override
+	public int hashCode(){
+		return (Objects.hashCode(e) * 31 + level) * 31 + (ignoreLevelRestriction ? 1 : 0);
+	}
+
 }
@@ -3,17 +3,22 @@ package cf.lukasheinzl.mc.api.inventory;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 
 /**
- * This class represents an inventory.
+ * This class represents an inventory.<br>
+ * If no player is given as the holder, the APIInventory itself is the {@link org.bukkit.inventory.InventoryHolder
+ * InventoryHolder} of Bukkit's inventory. This allows the {@link cf.lukasheinzl.mc.api.inventory.InventoryRouter
+ * InventoryRouter} to find the listeners of a clicked inventory without any lookup.
  * 
  * @author Lukas Heinzl
  *
  */
-public class APIInventory{
+public class APIInventory implements InventoryHolder{
 
-	private final Inventory i;
+	private final Inventory	i;
+	InventoryListener[]		listeners	= InventoryRouter.NONE;
 
 	/**
 	 * Constructs a new APIInventory with the given amount of rows.
@@ -57,14 +62,14 @@ public class APIInventory{
 	 * name.
 	 * 
 	 * @param p
-	 *            The holder of this inventory
+	 *            The holder of this inventory or null to make this APIInventory the holder
 	 * @param rows
 	 *            The amount of rows this inventory should have
 	 * @param name
 	 *            The display name of this inventory
 	 */
 	public APIInventory(Player p, int rows, String name){
-		i = Bukkit.createInventory(p, rows * 9, name);
+		i = Bukkit.createInventory(p == null ? this : p, rows * 9, name);
 	}
 
 	/**
@@ -72,6 +77,7 @@ public class APIInventory{
 	 * 
 	 * @return Bukkit's inventory
 	 */
+	@Override
 	public Inventory getInventory(){
 		return i;
 	}
@@ -130,18 +136,13 @@ public class APIInventory{
 	 * Creates a copy of this inventory.
 	 * 
 	 * @return A new APIInventroy object with the same contents as this one
+	 * @see cf.lukasheinzl.mc.api.inventory.InventoryTemplate InventoryTemplate - for inventories copied many times
 	 */
 	public APIInventory clone(){
 		APIInventory ai = new APIInventory(i.getSize() / 9, getName());
 
-		for(int j = 0; j < i.getSize(); j++){
-			ItemStack item = i.getItem(j);
-
-			if(item != null){
-				ai.setItem(j, new APIItem(item.clone()));
-			}
-		}
-
+		// Bukkit copies the ItemStacks into the new inventory
+		ai.getInventory().setContents(i.getContents());
 		return ai;
 	}
 
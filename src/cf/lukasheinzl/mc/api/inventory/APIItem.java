@@ -6,18 +6,20 @@ import java.util.List;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.PotionMeta;
 import org.bukkit.potion.PotionData;
 
 /**
- * This class represents an item.
+ * This class represents an item. Items with several properties (e.g. name, lore and enchantments) should be created
+ * using an {@link cf.lukasheinzl.mc.api.inventory.ItemBuilder ItemBuilder}, which applies them all at once.
  * 
  * @author Lukas Heinzl
  *
  */
 public class APIItem{
 
-	private final ItemStack is;
+	private final ItemStack	is;
+	private long			key;
+	private boolean			keyed;
 
 	/**
 	 * Constructs a new APIItem of the given type and amount.
@@ -79,6 +81,26 @@ public class APIItem{
 		return is;
 	}
 
+	/**
+	 * Returns the identity key of this item. It is computed once and recomputed only after this item was changed
+	 * through this APIItem; changes made to the ItemStack directly are not noticed.
+	 * 
+	 * @return The identity key of this item
+	 * @see cf.lukasheinzl.mc.api.inventory.ItemKey#of(ItemStack) ItemKey.of(ItemStack)
+	 */
+	public long getKey(){
+		if(!keyed){
+			setKey(ItemKey.of(is));
+		}
+
+		return key;
+	}
+
+	void setKey(long key){
+		this.key = key;
+		this.keyed = true;
+	}
+
 	/**
 	 * Returns the display name of this item.
 	 * 
@@ -105,6 +127,7 @@ public class APIItem{
 		ItemMeta im = is.getItemMeta();
 		im.setDisplayName(name);
 		is.setItemMeta(im);
+		keyed = false;
 
 		return this;
 	}
@@ -130,6 +153,7 @@ public class APIItem{
 		ItemMeta im = is.getItemMeta();
 		im.setLore(lore);
 		is.setItemMeta(im);
+		keyed = false;
 
 		return this;
 	}
@@ -156,13 +180,7 @@ public class APIItem{
 	 * @return The newly created APIItem
 	 */
 	public static APIItem newPotionItem(int amount, PotionData data){
-		APIItem ai = new APIItem(Material.POTION, amount);
-		PotionMeta pm = (PotionMeta) ai.getItemStack().getItemMeta();
-
-		pm.setBasePotionData(data);
-		ai.getItemStack().setItemMeta(pm);
-
-		return ai;
+		return new ItemBuilder(Material.POTION, amount).setPotionData(data).build();
 	}
 
 	/**
@@ -176,13 +194,7 @@ public class APIItem{
 	 * @return The newly created APIItem
 	 */
 	public static APIItem newSplashPotionItem(int amount, PotionData data){
-		APIItem ai = new APIItem(Material.SPLASH_POTION, amount);
-		PotionMeta pm = (PotionMeta) ai.getItemStack().getItemMeta();
-
-		pm.setBasePotionData(data);
-		ai.getItemStack().setItemMeta(pm);
-
-		return ai;
+		return new ItemBuilder(Material.SPLASH_POTION, amount).setPotionData(data).build();
 	}
 
 	/**
@@ -196,13 +208,7 @@ public class APIItem{
 	 * @return The newly created APIItem
 	 */
 	public static APIItem newTippedArrowItem(int amount, PotionData data){
-		APIItem ai = new APIItem(Material.TIPPED_ARROW, amount);
-		PotionMeta pm = (PotionMeta) ai.getItemStack().getItemMeta();
-
-		pm.setBasePotionData(data);
-		ai.getItemStack().setItemMeta(pm);
-
-		return ai;
+		return new ItemBuilder(Material.TIPPED_ARROW, amount).setPotionData(data).build();
 	}
 
 	/**
@@ -215,15 +221,7 @@ public class APIItem{
 	 * @return The newly created APIItem
 	 */
 	public static APIItem newEnchantedItem(ItemStack is, APIEnchantment... enchants){
-		APIItem ai = new APIItem(is);
-		ItemMeta im = ai.getItemStack().getItemMeta();
-
-		for(APIEnchantment e: enchants){
-			im.addEnchant(e.getEnchantment(), e.getLevel(), e.isIgnoreLevelRestriction());
-		}
-
-		ai.getItemStack().setItemMeta(im);
-		return ai;
+		return new APIItem(new ItemBuilder().addEnchantments(enchants).applyTo(is));
 	}
 
 }
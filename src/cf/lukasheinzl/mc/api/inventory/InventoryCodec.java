@@ -0,0 +1,540 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionData;
+import org.bukkit.potion.PotionType;
+
+/**
+ * This class encodes items and inventory layouts into a compact, versioned binary format and decodes them again. All
+ * strings (types, display names, lore, enchantments, potion types and flags) are stored once in a string table and
+ * referenced by their id, numbers are stored as varints. Enchantments and other enum values are stored by name, so the
+ * encoding does not depend on the numeric ids of the server version.<br>
+ * Encoding and decoding work on ByteBuffers, so the data can be written and read through channels or memory-mapped
+ * files. Many layouts can be encoded together, sharing one string table.<br>
+ * Decoding returns null if the data is not valid or was written by a newer version. All counts are checked before
+ * anything is allocated, so invalid or malicious data can not exhaust the memory. Items of unknown types are left out,
+ * unknown enchantments, potion types and flags are ignored.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class InventoryCodec{
+
+	/**
+	 * The version of the format written by this codec.
+	 */
+	public static final int		VERSION			= 1;
+
+	private static final int	MAGIC			= 0x50414943;	// "PAIC"
+
+	private static final int	KIND_ITEM		= 0;
+	private static final int	KIND_LAYOUTS	= 1;
+
+	private static final int	HAS_NAME		= 1;
+	private static final int	HAS_LORE		= 2;
+	private static final int	HAS_ENCHANTS	= 4;
+	private static final int	HAS_POTION		= 8;
+	private static final int	HAS_FLAGS		= 16;
+
+	private static final int	MAX_ROWS		= 6;
+	private static final int	MAX_AMOUNT		= 127;	// stored as a byte by Minecraft
+	private static final int	MAX_COUNT		= 0xFFFF;
+
+	private InventoryCodec(){
+
+	}
+
+	/**
+	 * Encodes the given item.
+	 * 
+	 * @param item
+	 *            The item to encode
+	 * @return The encoded item, ready to be read
+	 */
+	public static ByteBuffer encode(APIItem item){
+		Writer w = new Writer();
+		w.writeItem(item.getItemStack());
+
+		return w.finish(KIND_ITEM);
+	}
+
+	/**
+	 * Encodes the given inventory layout.
+	 * 
+	 * @param t
+	 *            The layout to encode
+	 * @return The encoded layout, ready to be read
+	 */
+	public static ByteBuffer encode(InventoryTemplate t){
+		Map<String, InventoryTemplate> layouts = new LinkedHashMap<>();
+		layouts.put(null, t);
+
+		return encode(layouts);
+	}
+
+	/**
+	 * Encodes the current contents of the given APIInventory.
+	 * 
+	 * @param i
+	 *            The APIInventory to encode
+	 * @return The encoded layout, ready to be read
+	 * @see #encode(InventoryTemplate)
+	 */
+	public static ByteBuffer encode(APIInventory i){
+		return encode(new InventoryTemplate(i));
+	}
+
+	/**
+	 * Encodes the given inventory layouts together, sharing one string table.
+	 * 
+	 * @param layouts
+	 *            The layouts by their names
+	 * @return The encoded layouts, ready to be read
+	 */
+	public static ByteBuffer encode(Map<String, InventoryTemplate> layouts){
+		Writer w = new Writer();
+		w.writeVarInt(layouts.size());
+
+		for(Map.Entry<String, InventoryTemplate> e: layouts.entrySet()){
+			w.writeString(e.getKey());
+			w.writeLayout(e.getValue());
+		}
+
+		return w.finish(KIND_LAYOUTS);
+	}
+
+	/**
+	 * Decodes an item from the given buffer. The position of the buffer is moved behind the item.
+	 * 
+	 * @param buf
+	 *            The buffer to read from
+	 * @return The decoded item or null if the data is not valid
+	 */
+	public static APIItem decodeItem(ByteBuffer buf){
+		Reader r = Reader.open(buf, KIND_ITEM);
+
+		if(r == null){
+			return null;
+		}
+
+		try{
+			ItemStack is = r.readItem();
+			return is == null ? null : new APIItem(is);
+		} catch(RuntimeException e){
+			// any failure (underflow, invalid ids or counts, rejected values) means the data is not valid
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes an inventory layout from the given buffer. If the buffer contains several layouts, the first one is
+	 * returned. The position of the buffer is moved behind all layouts.
+	 * 
+	 * @param buf
+	 *            The buffer to read from
+	 * @return The decoded layout or null if the data is not valid
+	 */
+	public static InventoryTemplate decodeLayout(ByteBuffer buf){
+		Map<String, InventoryTemplate> layouts = decodeLayouts(buf);
+		return layouts == null || layouts.isEmpty() ? null : layouts.values().iterator().next();
+	}
+
+	/**
+	 * Decodes all inventory layouts from the given buffer. The position of the buffer is moved behind the layouts.
+	 * 
+	 * @param buf
+	 *            The buffer to read from
+	 * @return The decoded layouts by their names in the encoded order or null if the data is not valid
+	 */
+	public static Map<String, InventoryTemplate> decodeLayouts(ByteBuffer buf){
+		Reader r = Reader.open(buf, KIND_LAYOUTS);
+
+		if(r == null){
+			return null;
+		}
+
+		try{
+			int count = r.readCount(MAX_COUNT);
+			Map<String, InventoryTemplate> layouts = new LinkedHashMap<>();
+
+			for(int j = 0; j < count; j++){
+				String name = r.readString();
+				layouts.put(name, r.readLayout());
+			}
+
+			return layouts;
+		} catch(RuntimeException e){
+			// any failure (underflow, invalid ids or counts, rejected values) means the data is not valid
+			return null;
+		}
+	}
+
+	private static class Writer{
+
+		private final Map<String, Integer>	strings	= new HashMap<>();
+		private final List<String>			table	= new ArrayList<>();
+		private ByteBuffer					body	= ByteBuffer.allocate(256);
+
+		private void writeLayout(InventoryTemplate t){
+			int size = t.getRows() * 9;
+			int count = 0;
+
+			for(int j = 0; j < size; j++){
+				if(t.getItem(j) != null){
+					count++;
+				}
+			}
+
+			writeVarInt(t.getRows());
+			writeString(t.getName());
+			writeVarInt(count);
+
+			for(int j = 0; j < size; j++){
+				ItemStack is = t.getItem(j);
+
+				if(is != null){
+					writeVarInt(j);
+					writeItem(is);
+				}
+			}
+		}
+
+		private void writeItem(ItemStack is){
+			writeString(is.getType().name());
+			writeVarInt(is.getAmount());
+			writeVarInt(zigZag(is.getDurability()));
+
+			if(!is.hasItemMeta()){
+				writeVarInt(0);
+				return;
+			}
+
+			ItemMeta im = is.getItemMeta();
+			PotionData potion = im instanceof PotionMeta ? ((PotionMeta) im).getBasePotionData() : null;
+			int flags = (im.hasDisplayName() ? HAS_NAME : 0) | (im.hasLore() ? HAS_LORE : 0) | (im.hasEnchants() ? HAS_ENCHANTS : 0)
+					| (potion != null ? HAS_POTION : 0) | (im.getItemFlags().isEmpty() ? 0 : HAS_FLAGS);
+
+			writeVarInt(flags);
+
+			if((flags & HAS_NAME) != 0){
+				writeString(im.getDisplayName());
+			}
+
+			if((flags & HAS_LORE) != 0){
+				List<String> lore = im.getLore();
+				writeVarInt(lore.size());
+
+				for(String line: lore){
+					writeString(line);
+				}
+			}
+
+			if((flags & HAS_ENCHANTS) != 0){
+				Map<Enchantment, Integer> enchants = im.getEnchants();
+				writeVarInt(enchants.size());
+
+				for(Map.Entry<Enchantment, Integer> e: enchants.entrySet()){
+					writeString(e.getKey().getName());
+					writeVarInt(e.getValue());
+				}
+			}
+
+			if((flags & HAS_POTION) != 0){
+				writeString(potion.getType().name());
+				writeVarInt((potion.isExtended() ? 1 : 0) | (potion.isUpgraded() ? 2 : 0));
+			}
+
+			if((flags & HAS_FLAGS) != 0){
+				writeVarInt(im.getItemFlags().size());
+
+				for(ItemFlag f: im.getItemFlags()){
+					writeString(f.name());
+				}
+			}
+		}
+
+		private void writeString(String s){
+			// 0 is null, every other id is the index in the string table + 1
+			if(s == null){
+				writeVarInt(0);
+				return;
+			}
+
+			Integer id = strings.get(s);
+
+			if(id == null){
+				id = table.size() + 1;
+				strings.put(s, id);
+				table.add(s);
+			}
+
+			writeVarInt(id);
+		}
+
+		private void writeVarInt(int v){
+			if(body.remaining() < 5){
+				body = grow(body, body.capacity());
+			}
+
+			InventoryCodec.writeVarInt(body, v);
+		}
+
+		private ByteBuffer finish(int kind){
+			byte[][] encoded = new byte[table.size()][];
+			int size = 4 + 5 * 3 + body.position();
+
+			for(int j = 0; j < encoded.length; j++){
+				encoded[j] = table.get(j).getBytes(StandardCharsets.UTF_8);
+				size += 5 + encoded[j].length;
+			}
+
+			ByteBuffer buf = ByteBuffer.allocate(size);
+			buf.putInt(MAGIC);
+			InventoryCodec.writeVarInt(buf, VERSION);
+			InventoryCodec.writeVarInt(buf, kind);
+			InventoryCodec.writeVarInt(buf, encoded.length);
+
+			for(byte[] b: encoded){
+				InventoryCodec.writeVarInt(buf, b.length);
+				buf.put(b);
+			}
+
+			body.flip();
+			buf.put(body);
+			buf.flip();
+
+			return buf;
+		}
+
+	}
+
+	private static class Reader{
+
+		private final ByteBuffer	buf;
+		private final String[]		table;
+
+		private Reader(ByteBuffer buf, String[] table){
+			this.buf = buf;
+			this.table = table;
+		}
+
+		private static Reader open(ByteBuffer buf, int kind){
+			try{
+				if(buf.getInt() != MAGIC || InventoryCodec.readVarInt(buf) > VERSION || InventoryCodec.readVarInt(buf) != kind){
+					return null;
+				}
+
+				String[] table = new String[InventoryCodec.readCount(buf, Integer.MAX_VALUE)];
+
+				for(int j = 0; j < table.length; j++){
+					table[j] = readUTF8(buf, InventoryCodec.readCount(buf, Integer.MAX_VALUE));
+				}
+
+				return new Reader(buf, table);
+			} catch(RuntimeException e){
+				return null;
+			}
+		}
+
+		private InventoryTemplate readLayout(){
+			int rows = readVarInt();
+
+			if(rows < 1 || rows > MAX_ROWS){
+				throw new IllegalArgumentException("Invalid amount of rows: " + rows);
+			}
+
+			String name = readString();
+			int count = readCount(rows * 9);
+			ItemStack[] contents = new ItemStack[rows * 9];
+
+			for(int j = 0; j < count; j++){
+				int slot = readVarInt();
+
+				if(slot < 0 || slot >= contents.length){
+					throw new IllegalArgumentException("Invalid slot: " + slot);
+				}
+
+				contents[slot] = readItem();
+			}
+
+			return new InventoryTemplate(rows, name, contents);
+		}
+
+		private ItemStack readItem(){
+			Material type = Material.getMaterial(readName());
+			int amount = readVarInt();
+			int durability = unZigZag(readVarInt());
+
+			if(amount < 1 || amount > MAX_AMOUNT){
+				throw new IllegalArgumentException("Invalid amount: " + amount);
+			}
+
+			if(durability < Short.MIN_VALUE || durability > Short.MAX_VALUE){
+				throw new IllegalArgumentException("Invalid durability: " + durability);
+			}
+
+			int flags = readVarInt();
+			ItemBuilder ib = new ItemBuilder(new ItemStack(type == null ? Material.AIR : type, amount, (short) durability));
+
+			if((flags & HAS_NAME) != 0){
+				ib.setName(readName());
+			}
+
+			if((flags & HAS_LORE) != 0){
+				int count = readCount(MAX_COUNT);
+				List<String> lore = new ArrayList<>(count);
+
+				for(int j = 0; j < count; j++){
+					lore.add(readName());
+				}
+
+				ib.setLore(lore);
+			}
+
+			if((flags & HAS_ENCHANTS) != 0){
+				int count = readCount(MAX_COUNT);
+
+				for(int j = 0; j < count; j++){
+					Enchantment e = Enchantment.getByName(readName());
+					int level = readVarInt();
+
+					if(e != null){
+						ib.addEnchantment(e, level, true);
+					}
+				}
+			}
+
+			if((flags & HAS_POTION) != 0){
+				String potion = readName();
+				int bits = readVarInt();
+
+				try{
+					ib.setPotionData(new PotionData(PotionType.valueOf(potion), (bits & 1) != 0, (bits & 2) != 0));
+				} catch(IllegalArgumentException e){
+					// unknown potion type or invalid combination, the potion is left without a type
+				}
+			}
+
+			if((flags & HAS_FLAGS) != 0){
+				int count = readCount(MAX_COUNT);
+
+				for(int j = 0; j < count; j++){
+					String flag = readName();
+
+					try{
+						ib.addFlags(ItemFlag.valueOf(flag));
+					} catch(IllegalArgumentException e){
+						// unknown flag
+					}
+				}
+			}
+
+			return type == null ? null : ib.buildItemStack();
+		}
+
+		private String readString(){
+			int id = readVarInt();
+
+			if(id < 0 || id > table.length){
+				throw new IllegalArgumentException("Invalid string id: " + id);
+			}
+
+			return id == 0 ? null : table[id - 1];
+		}
+
+		private String readName(){
+			String s = readString();
+
+			if(s == null){
+				throw new IllegalArgumentException("Missing name");
+			}
+
+			return s;
+		}
+
+		private int readCount(int max){
+			return InventoryCodec.readCount(buf, max);
+		}
+
+		private int readVarInt(){
+			return InventoryCodec.readVarInt(buf);
+		}
+
+	}
+
+	private static void writeVarInt(ByteBuffer buf, int v){
+		while((v & ~0x7F) != 0){
+			buf.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+
+		buf.put((byte) v);
+	}
+
+	private static int readVarInt(ByteBuffer buf){
+		int v = 0;
+
+		for(int shift = 0; shift < 35; shift += 7){
+			byte b = buf.get();
+			v |= (b & 0x7F) << shift;
+
+			if(b >= 0){
+				return v;
+			}
+		}
+
+		throw new IllegalArgumentException("VarInt too long");
+	}
+
+	private static int readCount(ByteBuffer buf, int max){
+		int count = readVarInt(buf);
+
+		// every counted element takes at least one byte, so a count larger than the remaining data can not be valid
+		if(count < 0 || count > max || count > buf.remaining()){
+			throw new IllegalArgumentException("Invalid count: " + count);
+		}
+
+		return count;
+	}
+
+	private static int zigZag(int v){
+		return (v << 1) ^ (v >> 31);
+	}
+
+	private static int unZigZag(int v){
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static String readUTF8(ByteBuffer buf, int length){
+		if(buf.hasArray()){
+			String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+			buf.position(buf.position() + length);
+			return s;
+		}
+
+		byte[] b = new byte[length];
+		buf.get(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private static ByteBuffer grow(ByteBuffer buf, int extra){
+		ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() + Math.max(extra, 256));
+		buf.flip();
+		bigger.put(buf);
+		return bigger;
+	}
+
+}
@@ -1,25 +1,48 @@
 package cf.lukasheinzl.mc.api.inventory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
-import org.bukkit.event.EventHandler;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 
 /**
- * This class can listen for inventory-click-events on the given APIInventory.
+ * This class can listen for inventory-click-events on the given APIInventory. The clicks are delivered by the
+ * {@link cf.lukasheinzl.mc.api.inventory.InventoryRouter InventoryRouter}, so the InventoryListener does not have to be
+ * registered as a Bukkit listener. An APIInventory can have several InventoryListeners; a click is delivered to them in
+ * the order they were registered, until one of them cancels it.<br>
+ * Actions are stored in an array indexed by the slot-id, so dispatching a click is a single array access. Many slots
+ * can share one action by registering it for a {@link cf.lukasheinzl.mc.api.inventory.SlotRegion SlotRegion}. Negative
+ * slot-ids (e.g. -999 for clicks outside the window) are kept in a small map instead.<br>
+ * Clicks can be limited per player with a {@link #setClickLimit(int, long) click limit} and per slot with a
+ * {@link #setDebounce(int, long) debounce window}. Clicks exceeding them are cancelled before any action runs. The
+ * state of a player is removed when they close the inventory.<br>
+ * Every InventoryListener belongs to a plugin. It receives no clicks while the plugin is disabled and is unregistered
+ * once the plugin is disabled. If no plugin is given, the plugin that provides the first registered action is used.
  * 
  * @author Lukas Heinzl
  *
  */
 public class InventoryListener implements Listener{
 
-	private final APIInventory							i;
-	private Map<Integer, Consumer<InventoryClickEvent>>	actions	= new HashMap<>();
-	private boolean										shouldCancle;
+	private final APIInventory	i;
+	private Plugin				owner;
+	private SlotAction[]		actions;
+	private int[]				indices;
+	private long[]				debounce;
+	private Map<Integer, Slot>	outside;
+	private boolean				shouldCancle;
+	private int					clickLimit;
+	private long				clickWindow;
+	private Map<UUID, Clicks>	clicks;
 
 	/**
 	 * Constructs a new InventoryListener for the given APIInventory.
@@ -40,10 +63,69 @@ public class InventoryListener implements Listener{
 	 *            The APIInventory to listen for
 	 * @param shouldCancle
 	 *            If the event-handling should stop after this listener
+	 * @see #InventoryListener(Plugin, APIInventory, boolean) InventoryListener(Plugin, APIInventory, boolean) - Plugin
+	 *      defaults to the plugin providing the first registered action
 	 */
 	public InventoryListener(APIInventory i, boolean shouldCancle){
+		this(null, i, shouldCancle);
+	}
+
+	/**
+	 * Constructs a new InventoryListener for the given APIInventory, owned by the given plugin.
+	 * 
+	 * @param owner
+	 *            The plugin owning this listener
+	 * @param i
+	 *            The APIInventory to listen for
+	 * @param shouldCancle
+	 *            If the event-handling should stop after this listener
+	 */
+	public InventoryListener(Plugin owner, APIInventory i, boolean shouldCancle){
+		this.owner = owner;
 		this.i = i;
 		this.shouldCancle = shouldCancle;
+		this.actions = new SlotAction[i.getInventory().getSize()];
+		this.indices = new int[actions.length];
+		this.debounce = new long[actions.length];
+
+		register();
+	}
+
+	/**
+	 * Registers this InventoryListener at the {@link cf.lukasheinzl.mc.api.inventory.InventoryRouter InventoryRouter}.
+	 * This is done by the constructor. The listener receives clicks after the listeners of the APIInventory that were
+	 * registered before it.
+	 * 
+	 * @return This InventoryListener - allows method chaining
+	 */
+	public InventoryListener register(){
+		InventoryRouter.register(this);
+		return this;
+	}
+
+	/**
+	 * Unregisters this InventoryListener from the {@link cf.lukasheinzl.mc.api.inventory.InventoryRouter
+	 * InventoryRouter}. It will not receive any clicks until it is {@link #register() registered} again.
+	 * 
+	 * @return This InventoryListener - allows method chaining
+	 */
+	public InventoryListener unregister(){
+		InventoryRouter.unregister(this);
+
+		if(clicks != null){
+			clicks.clear();
+		}
+
+		return this;
+	}
+
+	/**
+	 * Returns the plugin owning this listener.
+	 * 
+	 * @return The plugin owning this listener or null if it is not known yet
+	 */
+	public Plugin getOwner(){
+		return owner;
 	}
 
 	/**
@@ -82,11 +164,14 @@ public class InventoryListener implements Listener{
 	 * @return This InventoryListener - allows method chaining
 	 */
 	public InventoryListener registerAction(Consumer<InventoryClickEvent> action){
+		own(action);
+		SlotAction sa = wrap(action);
+
 		for(int i = 0; i < this.i.getInventory().getSize(); i++){
 			ItemStack is = this.i.getInventory().getItem(i);
 
 			if(is != null){
-				registerAction(i, action);
+				set(i, sa, 0);
 			}
 		}
 
@@ -119,7 +204,28 @@ public class InventoryListener implements Listener{
 	 * @return This InventoryListener - allows method chaining
 	 */
 	public InventoryListener registerAction(int slot, Consumer<InventoryClickEvent> action){
-		actions.put(slot, action);
+		own(action);
+		set(slot, wrap(action), 0);
+		return this;
+	}
+
+	/**
+	 * Registers a new action for all slots of the given region. The action receives the index of the clicked slot
+	 * within the region.
+	 * 
+	 * @param region
+	 *            The slots to perform the action for
+	 * @param action
+	 *            The action to perform
+	 * @return This InventoryListener - allows method chaining
+	 */
+	public InventoryListener registerAction(SlotRegion region, SlotAction action){
+		own(action);
+
+		for(int j = 0; j < region.size(); j++){
+			set(region.getSlot(j), action, j);
+		}
+
 		return this;
 	}
 
@@ -145,22 +251,257 @@ public class InventoryListener implements Listener{
 	 * @return This InventoryListener - allows method chaining
 	 */
 	public InventoryListener removeAction(int slot){
-		actions.remove(slot);
+		if(slot >= 0 && slot < actions.length){
+			actions[slot] = null;
+		} else if(slot < 0 && outside != null && outside.containsKey(slot)){
+			outside.get(slot).action = null;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Removes the actions for all slots of the given region.
+	 * 
+	 * @param region
+	 *            The slots to remove the actions for
+	 * @return This InventoryListener - allows method chaining
+	 */
+	public InventoryListener removeAction(SlotRegion region){
+		for(int j = 0; j < region.size(); j++){
+			removeAction(region.getSlot(j));
+		}
+
+		return this;
+	}
+
+	/**
+	 * Limits the clicks of every player to the given amount per time window. Further clicks within the window are
+	 * cancelled and do not perform any action.
+	 * 
+	 * @param clicks
+	 *            The maximum amount of clicks per window or 0 to remove the limit
+	 * @param millis
+	 *            The length of the window in milliseconds
+	 * @return This InventoryListener - allows method chaining
+	 */
+	public InventoryListener setClickLimit(int clicks, long millis){
+		this.clickLimit = clicks;
+		this.clickWindow = TimeUnit.MILLISECONDS.toNanos(millis);
+		return this;
+	}
+
+	/**
+	 * Sets the debounce window of the given inventory-slot. A player clicking the slot again within the window is
+	 * cancelled and does not perform the action.
+	 * 
+	 * @param slot
+	 *            The slot-id
+	 * @param millis
+	 *            The length of the window in milliseconds or 0 to remove it
+	 * @return This InventoryListener - allows method chaining
+	 */
+	public InventoryListener setDebounce(int slot, long millis){
+		if(slot < 0){
+			outside(slot).debounce = TimeUnit.MILLISECONDS.toNanos(millis);
+			return this;
+		}
+
+		ensureCapacity(slot);
+		debounce[slot] = TimeUnit.MILLISECONDS.toNanos(millis);
+		return this;
+	}
+
+	/**
+	 * Sets the debounce window of all slots of the given region.
+	 * 
+	 * @param region
+	 *            The slots to set the debounce window for
+	 * @param millis
+	 *            The length of the window in milliseconds or 0 to remove it
+	 * @return This InventoryListener - allows method chaining
+	 * @see #setDebounce(int, long)
+	 */
+	public InventoryListener setDebounce(SlotRegion region, long millis){
+		for(int j = 0; j < region.size(); j++){
+			setDebounce(region.getSlot(j), millis);
+		}
+
 		return this;
 	}
 
-	@EventHandler
+	void own(Object action){
+		// actions created by PluginAPI itself (e.g. PaginatedInventory or the wrappers of Consumers) do not tell the
+		// owner, so the action given by the caller has to be checked before it is wrapped
+		if(owner != null || action.getClass().getClassLoader() == InventoryListener.class.getClassLoader()){
+			return;
+		}
+
+		try{
+			// lambdas are defined by the class loader of the plugin creating them
+			owner = JavaPlugin.getProvidingPlugin(action.getClass());
+		} catch(IllegalArgumentException | IllegalStateException e){
+			// not created by a plugin
+		}
+	}
+
+	private void set(int slot, SlotAction action, int index){
+		if(slot < 0){
+			Slot s = outside(slot);
+			s.action = action;
+			s.index = index;
+			return;
+		}
+
+		ensureCapacity(slot);
+		actions[slot] = action;
+		indices[slot] = index;
+	}
+
+	private Slot outside(int slot){
+		if(outside == null){
+			outside = new HashMap<>();
+		}
+
+		return outside.computeIfAbsent(slot, s -> new Slot());
+	}
+
+	private void ensureCapacity(int slot){
+		if(slot >= actions.length){
+			// clicks in the player's inventory use its own slot-ids, which may exceed the size of small inventories
+			actions = Arrays.copyOf(actions, Math.max(slot + 1, actions.length * 2));
+			indices = Arrays.copyOf(indices, actions.length);
+			debounce = Arrays.copyOf(debounce, actions.length);
+		}
+	}
+
+	private static SlotAction wrap(Consumer<InventoryClickEvent> action){
+		return (e, index) -> action.accept(e);
+	}
+
+	/**
+	 * Handles a click in the APIInventory. This is called by the {@link cf.lukasheinzl.mc.api.inventory.InventoryRouter
+	 * InventoryRouter}.
+	 * 
+	 * @param e
+	 *            The event of the click
+	 */
 	public void handle(InventoryClickEvent e){
-		if(!e.getInventory().equals(i.getInventory())){
+		int slot = e.getSlot();
+		SlotAction[] actions = this.actions;
+		boolean inRange = slot >= 0 && slot < actions.length;
+		Slot s = slot < 0 && outside != null ? outside.get(slot) : null;
+
+		if(!accept(e.getWhoClicked(), slot, inRange ? debounce[slot] : s != null ? s.debounce : 0)){
+			e.setCancelled(true);
 			return;
 		}
 
 		e.setCancelled(shouldCancle);
 
-		Consumer<InventoryClickEvent> action = actions.get(e.getSlot());
-		if(action != null){
-			action.accept(e);
+		if(inRange && actions[slot] != null){
+			actions[slot].accept(e, indices[slot]);
+		} else if(s != null && s.action != null){
+			s.action.accept(e, s.index);
+		}
+	}
+
+	/**
+	 * Removes the click state of the given player. This is called by the
+	 * {@link cf.lukasheinzl.mc.api.inventory.InventoryRouter InventoryRouter} when the player closes the APIInventory.
+	 * 
+	 * @param p
+	 *            The player who closed the inventory
+	 */
+	public void handleClose(HumanEntity p){
+		if(clicks != null){
+			clicks.remove(p.getUniqueId());
 		}
 	}
 
+	private boolean accept(HumanEntity p, int slot, long debounce){
+		if(clickLimit <= 0 && debounce <= 0){
+			return true;
+		}
+
+		if(clicks == null){
+			clicks = new HashMap<>();
+		}
+
+		long now = System.nanoTime();
+		Clicks c = clicks.computeIfAbsent(p.getUniqueId(), u -> new Clicks());
+
+		long time = now - c.start + 1;
+		long last = debounce > 0 ? c.getLastClick(slot) : 0;
+
+		if(last != 0 && time - last < debounce){
+			return false;
+		}
+
+		if(clickLimit > 0){
+			if(c.count == 0 || now - c.windowStart >= clickWindow){
+				c.windowStart = now;
+				c.count = 0;
+			}
+
+			if(c.count >= clickLimit){
+				return false;
+			}
+
+			c.count++;
+		}
+
+		if(debounce > 0){
+			c.setLastClick(slot, time, actions.length);
+		}
+
+		return true;
+	}
+
+	private static class Slot{
+
+		private SlotAction	action;
+		private int			index;
+		private long		debounce;
+
+	}
+
+	private static class Clicks{
+
+		private final long			start	= System.nanoTime();
+		private long				windowStart;
+		private int					count;
+		// the time of the last click relative to start (plus 1) by slot-id, 0 if the slot was not clicked yet
+		private long[]				lastClicks;
+		private Map<Integer, Long>	outside;
+
+		private long getLastClick(int slot){
+			if(slot < 0){
+				Long last = outside == null ? null : outside.get(slot);
+				return last == null ? 0 : last;
+			}
+
+			return lastClicks == null || slot >= lastClicks.length ? 0 : lastClicks[slot];
+		}
+
+		private void setLastClick(int slot, long time, int size){
+			if(slot < 0){
+				if(outside == null){
+					outside = new HashMap<>();
+				}
+
+				outside.put(slot, time);
+				return;
+			}
+
+			if(lastClicks == null || slot >= lastClicks.length){
+				int length = Math.max(slot + 1, size);
+				lastClicks = lastClicks == null ? new long[length] : Arrays.copyOf(lastClicks, length);
+			}
+
+			lastClicks[slot] = time;
+		}
+
+	}
+
 }
@@ -0,0 +1,201 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import cf.lukasheinzl.mc.api.API;
+
+/**
+ * This class renders frequently changing contents (e.g. balances, timers or stock counts) into an APIInventory. Every
+ * slot keeps a fingerprint and a copy of the last rendered item; a render pass only writes the slots whose fingerprint
+ * changed. Equal fingerprints of items are confirmed with equals, so a hash collision never hides a change. The
+ * fingerprints of items and the fingerprints given by the caller are never compared with each other.
+ * The writes are collected and flushed once during the next tick, so rendering several times per tick causes at most
+ * one update per slot.<br>
+ * Rendered ItemStacks must not be modified until they are flushed. The renderer should only be accessed from the
+ * server thread.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class InventoryRenderer{
+
+	private static final long	EMPTY	= 0;
+	private static final long	ITEM	= 1L << 32;
+
+	private final APIInventory	i;
+	private final long[]		rendered;
+	private final ItemStack[]	last;
+	private final ItemStack[]	pending;
+	private final BitSet		dirty;
+	private final BitSet		stale;
+	private final BitSet		custom;
+	private BukkitTask			task;
+
+	/**
+	 * Constructs a new InventoryRenderer for the given APIInventory. The current contents of the inventory are the
+	 * first frame.
+	 * 
+	 * @param i
+	 *            The APIInventory to render into
+	 */
+	public InventoryRenderer(APIInventory i){
+		this.i = i;
+		this.rendered = new long[i.getInventory().getSize()];
+		this.last = new ItemStack[rendered.length];
+		this.pending = new ItemStack[rendered.length];
+		this.dirty = new BitSet(rendered.length);
+		this.stale = new BitSet(rendered.length);
+		this.custom = new BitSet(rendered.length);
+
+		for(int j = 0; j < rendered.length; j++){
+			ItemStack is = i.getItem(j);
+			rendered[j] = fingerprint(is);
+			last[j] = is == null ? null : is.clone();
+		}
+	}
+
+	/**
+	 * Returns the APIInventory to render into.
+	 * 
+	 * @return The APIInventory to render into
+	 */
+	public APIInventory getInventory(){
+		return i;
+	}
+
+	/**
+	 * Renders a whole frame. Only the slots that differ from the last frame are written.
+	 * 
+	 * @param frame
+	 *            The ItemStacks by slot-id (missing or null entries are empty slots)
+	 * @return This InventoryRenderer - allows method chaining
+	 */
+	public InventoryRenderer render(ItemStack[] frame){
+		for(int j = 0; j < rendered.length; j++){
+			ItemStack is = j < frame.length ? frame[j] : null;
+			update(j, fingerprint(is), is);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Renders the given APIItem into the given slot, if it differs from the last rendered item.
+	 * 
+	 * @param slot
+	 *            The slot-id
+	 * @param item
+	 *            The item or null to clear the slot
+	 * @return This InventoryRenderer - allows method chaining
+	 */
+	public InventoryRenderer render(int slot, APIItem item){
+		ItemStack is = item == null ? null : item.getItemStack();
+		update(slot, fingerprint(is), is);
+
+		return this;
+	}
+
+	/**
+	 * Renders the item identified by the given fingerprint into the given slot. The item is only created if the
+	 * fingerprint differs from the last rendered one, e.g. a balance can be used as the fingerprint of the item showing
+	 * it. The fingerprint is trusted: equal fingerprints are not confirmed by comparing the items. The item is always
+	 * created if the slot was last rendered from an item instead of a fingerprint.
+	 * 
+	 * @param slot
+	 *            The slot-id
+	 * @param fingerprint
+	 *            The value identifying the content of the item
+	 * @param item
+	 *            The supplier creating the item
+	 * @return This InventoryRenderer - allows method chaining
+	 */
+	public InventoryRenderer render(int slot, long fingerprint, Supplier<? extends APIItem> item){
+		if(rendered[slot] != fingerprint || stale.get(slot) || !custom.get(slot)){
+			APIItem ai = item.get();
+			write(slot, fingerprint, ai == null ? null : ai.getItemStack(), true);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes all changed slots into the inventory immediately. This is done automatically during the next tick after
+	 * a slot changed.
+	 * 
+	 * @return This InventoryRenderer - allows method chaining
+	 */
+	public InventoryRenderer flush(){
+		if(task != null){
+			task.cancel();
+			task = null;
+		}
+
+		for(int j = dirty.nextSetBit(0); j >= 0; j = dirty.nextSetBit(j + 1)){
+			i.getInventory().setItem(j, pending[j]);
+			pending[j] = null;
+		}
+
+		dirty.clear();
+		return this;
+	}
+
+	/**
+	 * Forgets the last rendered frame, so the next render pass writes every slot. This should be called after the
+	 * inventory was changed without this renderer.
+	 * 
+	 * @return This InventoryRenderer - allows method chaining
+	 */
+	public InventoryRenderer invalidate(){
+		stale.set(0, rendered.length);
+		return this;
+	}
+
+	/**
+	 * Returns the amount of slots waiting to be written.
+	 * 
+	 * @return The amount of slots waiting to be written
+	 */
+	public int getPendingCount(){
+		return dirty.cardinality();
+	}
+
+	private void update(int slot, long fingerprint, ItemStack is){
+		// the fingerprint is only a 32-bit hash, so a match is confirmed with the last rendered item
+		if(rendered[slot] == fingerprint && !stale.get(slot) && !custom.get(slot) && Objects.equals(last[slot], is)){
+			return;
+		}
+
+		write(slot, fingerprint, is, false);
+	}
+
+	// the slots rendered from a custom fingerprint are marked, so switching between both ways always writes the slot
+	private void write(int slot, long fingerprint, ItemStack is, boolean fromFingerprint){
+		rendered[slot] = fingerprint;
+		last[slot] = is == null ? null : is.clone();
+		stale.clear(slot);
+		custom.set(slot, fromFingerprint);
+		pending[slot] = is;
+		dirty.set(slot);
+
+		if(task == null){
+			task = Bukkit.getScheduler().runTask(JavaPlugin.getPlugin(API.class), this::flush);
+		}
+	}
+
+	private static long fingerprint(ItemStack is){
+		if(is == null){
+			return EMPTY;
+		}
+
+		// ItemStack.hashCode covers the type, amount, durability and meta
+		return ITEM | (is.hashCode() & 0xFFFFFFFFL);
+	}
+
+}
@@ -0,0 +1,197 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * This class is the single Bukkit listener for all {@link cf.lukasheinzl.mc.api.inventory.InventoryListener
+ * InventoryListeners}. Every click and close is routed to the listeners of the inventory, so handling a click does
+ * not depend on the amount of existing inventories.<br>
+ * An inventory can have several listeners. A click is delivered to them in the order they were registered, until one
+ * of them cancels it (a listener that {@link cf.lukasheinzl.mc.api.inventory.InventoryListener#isShouldCancle() should
+ * cancel}, a rejected click or an action cancelling the event); the following listeners do not receive it.<br>
+ * The listeners of an inventory held by its {@link cf.lukasheinzl.mc.api.inventory.APIInventory APIInventory} are
+ * stored in the APIInventory itself. Only inventories held by a player are kept in a map. The router is
+ * {@link #enable(Plugin) enabled} by the PluginAPI plugin itself and should only be accessed from the server thread.<br>
+ * Listeners of disabled plugins receive no clicks and are removed once their plugin is disabled.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class InventoryRouter implements Listener{
+
+	static final InventoryListener[]							NONE		= new InventoryListener[0];
+
+	private static final InventoryRouter						INSTANCE	= new InventoryRouter();
+	private static final Map<Inventory, InventoryListener[]>	LISTENERS	= new HashMap<>();
+	// listeners stored in their APIInventory, weak so they can be collected together with it
+	private static final Set<InventoryListener>					HELD		= Collections.newSetFromMap(new WeakHashMap<>());
+
+	private InventoryRouter(){
+
+	}
+
+	/**
+	 * Enables the router. Clicks are routed using the given plugin's events.
+	 * 
+	 * @param plugin
+	 *            The plugin to register the listener for
+	 */
+	public static void enable(Plugin plugin){
+		Bukkit.getPluginManager().registerEvents(INSTANCE, plugin);
+	}
+
+	/**
+	 * Disables the router. All listeners of inventories held by players are removed.
+	 */
+	public static void disable(){
+		LISTENERS.clear();
+		HELD.clear();
+	}
+
+	/**
+	 * Unregisters all listeners owned by the given plugin. This is done automatically once the plugin is disabled.
+	 * 
+	 * @param owner
+	 *            The plugin owning the listeners
+	 */
+	public static void removeAll(Plugin owner){
+		List<InventoryListener> owned = new ArrayList<>();
+
+		for(InventoryListener[] listeners: LISTENERS.values()){
+			for(InventoryListener l: listeners){
+				if(l.getOwner() == owner){
+					owned.add(l);
+				}
+			}
+		}
+
+		for(InventoryListener l: HELD){
+			if(l.getOwner() == owner){
+				owned.add(l);
+			}
+		}
+
+		for(InventoryListener l: owned){
+			unregister(l);
+		}
+	}
+
+	/**
+	 * Returns the first InventoryListener of the given inventory.
+	 * 
+	 * @param i
+	 *            The inventory
+	 * @return The first InventoryListener or null if there is none
+	 * @see #getListeners(Inventory)
+	 */
+	public static InventoryListener getListener(Inventory i){
+		InventoryListener[] listeners = listeners(i);
+		return listeners.length == 0 ? null : listeners[0];
+	}
+
+	/**
+	 * Returns the InventoryListeners of the given inventory in the order they receive clicks.
+	 * 
+	 * @param i
+	 *            The inventory
+	 * @return The unmodifiable list of InventoryListeners
+	 */
+	public static List<InventoryListener> getListeners(Inventory i){
+		return Collections.unmodifiableList(Arrays.asList(listeners(i)));
+	}
+
+	static void register(InventoryListener l){
+		APIInventory ai = l.getInventory();
+		InventoryListener[] listeners = listeners(ai.getInventory());
+
+		if(Arrays.asList(listeners).contains(l)){
+			return;
+		}
+
+		// copied on write, so listeners can be registered by the actions of a click
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = l;
+
+		if(ai.getInventory().getHolder() == ai){
+			ai.listeners = listeners;
+			HELD.add(l);
+		} else{
+			LISTENERS.put(ai.getInventory(), listeners);
+		}
+	}
+
+	static void unregister(InventoryListener l){
+		APIInventory ai = l.getInventory();
+		List<InventoryListener> listeners = new ArrayList<>(Arrays.asList(listeners(ai.getInventory())));
+
+		if(!listeners.remove(l)){
+			return;
+		}
+
+		if(ai.getInventory().getHolder() == ai){
+			ai.listeners = listeners.toArray(NONE);
+			HELD.remove(l);
+		} else if(listeners.isEmpty()){
+			LISTENERS.remove(ai.getInventory());
+		} else{
+			LISTENERS.put(ai.getInventory(), listeners.toArray(NONE));
+		}
+	}
+
+	@EventHandler
+	public void onClick(InventoryClickEvent e){
+		for(InventoryListener l: listeners(e.getInventory())){
+			if(isEnabled(l)){
+				l.handle(e);
+
+				if(e.isCancelled()){
+					return;
+				}
+			}
+		}
+	}
+
+	@EventHandler
+	public void onClose(InventoryCloseEvent e){
+		for(InventoryListener l: listeners(e.getInventory())){
+			l.handleClose(e.getPlayer());
+		}
+	}
+
+	private static InventoryListener[] listeners(Inventory i){
+		if(i == null){
+			return NONE;
+		}
+
+		InventoryHolder holder = i.getHolder();
+
+		if(holder instanceof APIInventory){
+			return ((APIInventory) holder).listeners;
+		}
+
+		InventoryListener[] listeners = LISTENERS.isEmpty() ? null : LISTENERS.get(i);
+		return listeners == null ? NONE : listeners;
+	}
+
+	private static boolean isEnabled(InventoryListener l){
+		Plugin owner = l.getOwner();
+		return owner == null || owner.isEnabled();
+	}
+
+}
@@ -0,0 +1,150 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.Map;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * This class represents an immutable blueprint of an inventory, e.g. a menu that is shown to many players. The items
+ * are built once and shared by all views; creating a view copies them into a new inventory with a single bulk
+ * operation. Changing a template creates a new template (copy-on-write), existing views are not affected.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class InventoryTemplate{
+
+	private final int			rows;
+	private final String		name;
+	private final ItemStack[]	contents;
+
+	/**
+	 * Constructs a new InventoryTemplate with the current contents of the given APIInventory.
+	 * 
+	 * @param i
+	 *            The APIInventory to copy
+	 */
+	public InventoryTemplate(APIInventory i){
+		this(i.getInventory().getSize() / 9, i.getName(), i.getInventory().getContents());
+	}
+
+	/**
+	 * Constructs a new InventoryTemplate with the given amount of rows, display name and contents.
+	 * 
+	 * @param rows
+	 *            The amount of rows of the inventory
+	 * @param name
+	 *            The display name of the inventory
+	 * @param contents
+	 *            The ItemStacks by slot-id (are copied)
+	 */
+	public InventoryTemplate(int rows, String name, ItemStack[] contents){
+		this.rows = rows;
+		this.name = name;
+		this.contents = new ItemStack[rows * 9];
+
+		for(int j = 0; j < Math.min(contents.length, this.contents.length); j++){
+			this.contents[j] = contents[j] == null ? null : contents[j].clone();
+		}
+	}
+
+	private InventoryTemplate(InventoryTemplate t, int slot, ItemStack item){
+		this.rows = t.rows;
+		this.name = t.name;
+		this.contents = t.contents.clone();
+		this.contents[slot] = item;
+	}
+
+	/**
+	 * Returns the amount of rows of the inventory.
+	 * 
+	 * @return The amount of rows of the inventory
+	 */
+	public int getRows(){
+		return rows;
+	}
+
+	/**
+	 * Returns the display name of the inventory.
+	 * 
+	 * @return The display name of the inventory
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * Returns a copy of the ItemStack at the given position.
+	 * 
+	 * @param pos
+	 *            The slot-id of the ItemStack
+	 * @return A copy of the ItemStack at the given position or null
+	 */
+	public ItemStack getItem(int pos){
+		return contents[pos] == null ? null : contents[pos].clone();
+	}
+
+	/**
+	 * Creates a new InventoryTemplate with the given APIItem in the given slot. This template is not changed.
+	 * 
+	 * @param pos
+	 *            The slot-id to place the item in
+	 * @param item
+	 *            The item to place or null to clear the slot
+	 * @return The new InventoryTemplate
+	 */
+	public InventoryTemplate withItem(int pos, APIItem item){
+		return new InventoryTemplate(this, pos, item == null ? null : item.getItemStack().clone());
+	}
+
+	/**
+	 * Creates a new view of this template.
+	 * 
+	 * @return The new APIInventory
+	 * @see #createView(Player, Map) createView(Player, Map) - Player defaults to null, Map defaults to no overrides
+	 */
+	public APIInventory createView(){
+		return createView(null, null);
+	}
+
+	/**
+	 * Creates a new view of this template for the given player.
+	 * 
+	 * @param p
+	 *            The holder of the view or null
+	 * @return The new APIInventory
+	 * @see #createView(Player, Map) createView(Player, Map) - Map defaults to no overrides
+	 */
+	public APIInventory createView(Player p){
+		return createView(p, null);
+	}
+
+	/**
+	 * Creates a new view of this template for the given player. The contents are copied with a single bulk operation;
+	 * only the given slots differ from the template.
+	 * 
+	 * @param p
+	 *            The holder of the view or null
+	 * @param overrides
+	 *            The APIItems to place instead of the template's items mapped by slot-id or null
+	 * @return The new APIInventory
+	 */
+	public APIInventory createView(Player p, Map<Integer, ? extends APIItem> overrides){
+		APIInventory ai = new APIInventory(p, rows, name);
+		ItemStack[] items = contents;
+
+		if(overrides != null && !overrides.isEmpty()){
+			items = contents.clone();
+
+			for(Map.Entry<Integer, ? extends APIItem> e: overrides.entrySet()){
+				items[e.getKey()] = e.getValue() == null ? null : e.getValue().getItemStack();
+			}
+		}
+
+		// Bukkit copies the ItemStacks into the inventory, so the shared contents are never modified
+		ai.getInventory().setContents(items);
+		return ai;
+	}
+
+}
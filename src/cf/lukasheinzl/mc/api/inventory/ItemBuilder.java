@@ -0,0 +1,230 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionData;
+
+/**
+ * This class can be used to build APIItems. The display name, lore, enchantments, potion type and flags are collected
+ * and applied with a single ItemMeta round-trip, instead of one per property. The built ItemMeta is reused until the
+ * builder is changed, so building many equal items copies the meta only once per item.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ItemBuilder{
+
+	private final ItemStack				is;
+	private String						name;
+	private List<String>				lore;
+	private final List<APIEnchantment>	enchants	= new ArrayList<>();
+	private PotionData					potion;
+	private final Set<ItemFlag>			flags		= EnumSet.noneOf(ItemFlag.class);
+	private ItemMeta					meta;
+
+	/**
+	 * Constructs a new ItemBuilder for items of the given type and amount.
+	 * 
+	 * @param type
+	 *            The type of the items
+	 * @param amount
+	 *            The amount of the items
+	 */
+	public ItemBuilder(Material type, int amount){
+		this(new ItemStack(type, amount));
+	}
+
+	/**
+	 * Constructs a new ItemBuilder for copies of the given ItemStack.
+	 * 
+	 * @param is
+	 *            The ItemStack to build on (is copied)
+	 */
+	public ItemBuilder(ItemStack is){
+		this.is = is.clone();
+	}
+
+	// only collects properties for applyTo, so no template has to be copied
+	ItemBuilder(){
+		this.is = null;
+	}
+
+	/**
+	 * Sets the display name of the items.
+	 * 
+	 * @param name
+	 *            The display name of the items
+	 * @return This ItemBuilder - allows method chaining
+	 */
+	public ItemBuilder setName(String name){
+		this.name = name;
+		return changed();
+	}
+
+	/**
+	 * Sets the lore of the items.
+	 * 
+	 * @param lore
+	 *            The lore of the items
+	 * @return This ItemBuilder - allows method chaining
+	 */
+	public ItemBuilder setLore(List<String> lore){
+		this.lore = lore == null ? null : new ArrayList<>(lore);
+		return changed();
+	}
+
+	/**
+	 * Sets the lore of the items.
+	 * 
+	 * @param lore
+	 *            The lore of the items
+	 * @return This ItemBuilder - allows method chaining
+	 * @see #setLore(List)
+	 */
+	public ItemBuilder setLore(String... lore){
+		return setLore(Arrays.asList(lore));
+	}
+
+	/**
+	 * Adds the given enchantments to the items.
+	 * 
+	 * @param enchants
+	 *            The enchantments to add
+	 * @return This ItemBuilder - allows method chaining
+	 */
+	public ItemBuilder addEnchantments(APIEnchantment... enchants){
+		this.enchants.addAll(Arrays.asList(enchants));
+		return changed();
+	}
+
+	/**
+	 * Adds the given enchantment to the items.
+	 * 
+	 * @param e
+	 *            The enchantment type
+	 * @param level
+	 *            The level of the enchantment
+	 * @param ignoreLevelRestriction
+	 *            If the Minecraft's level restriction should be ignored
+	 * @return This ItemBuilder - allows method chaining
+	 * @see #addEnchantments(APIEnchantment...)
+	 */
+	public ItemBuilder addEnchantment(Enchantment e, int level, boolean ignoreLevelRestriction){
+		return addEnchantments(new APIEnchantment(e, level, ignoreLevelRestriction));
+	}
+
+	/**
+	 * Sets the potion type of the items. This only has an effect on potions and tipped arrows.
+	 * 
+	 * @param potion
+	 *            The potion type
+	 * @return This ItemBuilder - allows method chaining
+	 */
+	public ItemBuilder setPotionData(PotionData potion){
+		this.potion = potion;
+		return changed();
+	}
+
+	/**
+	 * Adds the given flags to the items.
+	 * 
+	 * @param flags
+	 *            The flags to add
+	 * @return This ItemBuilder - allows method chaining
+	 */
+	public ItemBuilder addFlags(ItemFlag... flags){
+		this.flags.addAll(Arrays.asList(flags));
+		return changed();
+	}
+
+	/**
+	 * Builds a new ItemStack with all collected properties.
+	 * 
+	 * @return The newly created ItemStack
+	 */
+	public ItemStack buildItemStack(){
+		ItemStack result = is.clone();
+
+		if(meta == null){
+			meta = createMeta(result);
+		}
+
+		if(meta != null){
+			result.setItemMeta(meta);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Applies all collected properties to the given ItemStack. Its type and amount are not changed.
+	 * 
+	 * @param target
+	 *            The ItemStack to change
+	 * @return The given ItemStack
+	 */
+	public ItemStack applyTo(ItemStack target){
+		ItemMeta im = createMeta(target);
+
+		if(im != null){
+			target.setItemMeta(im);
+		}
+
+		return target;
+	}
+
+	/**
+	 * Builds a new APIItem with all collected properties.
+	 * 
+	 * @return The newly created APIItem
+	 */
+	public APIItem build(){
+		return new APIItem(buildItemStack());
+	}
+
+	private ItemBuilder changed(){
+		meta = null;
+		return this;
+	}
+
+	private ItemMeta createMeta(ItemStack result){
+		if(name == null && lore == null && enchants.isEmpty() && potion == null && flags.isEmpty()){
+			return null;
+		}
+
+		ItemMeta im = result.getItemMeta();
+
+		if(name != null){
+			im.setDisplayName(name);
+		}
+
+		if(lore != null){
+			im.setLore(lore);
+		}
+
+		for(APIEnchantment e: enchants){
+			im.addEnchant(e.getEnchantment(), e.getLevel(), e.isIgnoreLevelRestriction());
+		}
+
+		if(potion != null && im instanceof PotionMeta){
+			((PotionMeta) im).setBasePotionData(potion);
+		}
+
+		if(!flags.isEmpty()){
+			im.addItemFlags(flags.toArray(new ItemFlag[flags.size()]));
+		}
+
+		return im;
+	}
+
+}
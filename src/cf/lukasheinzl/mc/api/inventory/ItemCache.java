@@ -0,0 +1,130 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * This class caches items by their {@link cf.lukasheinzl.mc.api.inventory.ItemSpec ItemSpec}, so equal items (e.g.
+ * glass panes or back buttons) are only built once. The cache holds at most the given amount of items and evicts the
+ * least recently used ones. It is thread-safe.<br>
+ * The cached items are prototypes which are never handed out. Every call returns a copy, which can be modified freely
+ * (copying an item is still much cheaper than building it).
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ItemCache{
+
+	private static final ItemCache			DEFAULT	= new ItemCache(1024);
+
+	private final Map<ItemSpec, ItemStack>	items;
+	private long							hits;
+	private long							misses;
+
+	/**
+	 * Constructs a new ItemCache holding at most the given amount of items.
+	 * 
+	 * @param maxSize
+	 *            The maximum amount of items
+	 */
+	public ItemCache(int maxSize){
+		this.items = new LinkedHashMap<ItemSpec, ItemStack>(16, 0.75F, true){
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ItemSpec, ItemStack> eldest){
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the shared ItemCache holding up to 1024 items.
+	 * 
+	 * @return The shared ItemCache
+	 */
+	public static ItemCache getDefault(){
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns a copy of the item described by the given spec. It is built if it is not cached.
+	 * 
+	 * @param spec
+	 *            The description of the item
+	 * @return A new APIItem
+	 */
+	public APIItem get(ItemSpec spec){
+		APIItem item = new APIItem(getCopy(spec));
+		item.setKey(spec.getKey());
+
+		return item;
+	}
+
+	/**
+	 * Returns a copy of the item described by the given spec.
+	 * 
+	 * @param spec
+	 *            The description of the item
+	 * @return A new ItemStack
+	 */
+	public ItemStack getCopy(ItemSpec spec){
+		return prototype(spec).clone();
+	}
+
+	private synchronized ItemStack prototype(ItemSpec spec){
+		ItemStack is = items.get(spec);
+
+		if(is != null){
+			hits++;
+			return is;
+		}
+
+		misses++;
+		is = spec.build().getItemStack();
+		items.put(spec, is);
+
+		return is;
+	}
+
+	/**
+	 * Returns the amount of cached items.
+	 * 
+	 * @return The amount of cached items
+	 */
+	public synchronized int size(){
+		return items.size();
+	}
+
+	/**
+	 * Returns how often a requested item was cached.
+	 * 
+	 * @return The amount of cache hits
+	 */
+	public synchronized long getHits(){
+		return hits;
+	}
+
+	/**
+	 * Returns how often a requested item had to be built.
+	 * 
+	 * @return The amount of cache misses
+	 */
+	public synchronized long getMisses(){
+		return misses;
+	}
+
+	/**
+	 * Removes all items and resets the counters.
+	 */
+	public synchronized void clear(){
+		items.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+}
@@ -0,0 +1,202 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * This class maps items to values, e.g. the entries of a shop to their prices. Items are looked up by their
+ * {@link cf.lukasheinzl.mc.api.inventory.ItemKey identity key}, so finding the entry of a clicked item is a single
+ * hash lookup instead of comparing it with every entry. The amount of the items is ignored.<br>
+ * The key only narrows down the candidates: items only differing in meta data not covered by the key (e.g. the owner
+ * of a skull) share a key, so every match is confirmed with isSimilar. The catalog should only be accessed from the
+ * server thread.
+ * 
+ * @author Lukas Heinzl
+ *
+ * @param <T>
+ *            The type of the values
+ */
+public class ItemCatalog<T>{
+
+	private final Map<Long, Entry<T>>	entries	= new HashMap<>();
+	private int							size;
+
+	/**
+	 * Puts the given item with the given value into this catalog. An existing entry of a similar item is replaced.
+	 * 
+	 * @param is
+	 *            The item (is copied)
+	 * @param value
+	 *            The value of the item
+	 * @return This ItemCatalog - allows method chaining
+	 */
+	public ItemCatalog<T> put(ItemStack is, T value){
+		return put(ItemKey.of(is), is.clone(), value);
+	}
+
+	/**
+	 * Puts the given item with the given value into this catalog. An existing entry of a similar item is replaced.
+	 * 
+	 * @param item
+	 *            The item (is copied)
+	 * @param value
+	 *            The value of the item
+	 * @return This ItemCatalog - allows method chaining
+	 */
+	public ItemCatalog<T> put(APIItem item, T value){
+		return put(item.getKey(), item.getItemStack().clone(), value);
+	}
+
+	/**
+	 * Puts the item described by the given spec with the given value into this catalog. An existing entry of a similar
+	 * item is replaced.
+	 * 
+	 * @param spec
+	 *            The description of the item
+	 * @param value
+	 *            The value of the item
+	 * @return This ItemCatalog - allows method chaining
+	 */
+	public ItemCatalog<T> put(ItemSpec spec, T value){
+		return put(spec.getKey(), spec.build().getItemStack(), value);
+	}
+
+	/**
+	 * Returns the value of the given item.
+	 * 
+	 * @param is
+	 *            The item (e.g. the clicked item)
+	 * @return The value of the item or null if it is not in this catalog
+	 */
+	public T get(ItemStack is){
+		return get(ItemKey.of(is), is);
+	}
+
+	/**
+	 * Returns the value of the given item. The key of the item is only computed once.
+	 * 
+	 * @param item
+	 *            The item
+	 * @return The value of the item or null if it is not in this catalog
+	 */
+	public T get(APIItem item){
+		return get(item.getKey(), item.getItemStack());
+	}
+
+	/**
+	 * Checks if the given item is in this catalog.
+	 * 
+	 * @param is
+	 *            The item
+	 * @return True, if the item is in this catalog
+	 */
+	public boolean contains(ItemStack is){
+		return find(ItemKey.of(is), is) != null;
+	}
+
+	/**
+	 * Removes the given item from this catalog.
+	 * 
+	 * @param is
+	 *            The item
+	 * @return The value of the removed item or null if it was not in this catalog
+	 */
+	public T remove(ItemStack is){
+		long key = ItemKey.of(is);
+		Entry<T> head = entries.get(key);
+		Entry<T> prev = null;
+
+		for(Entry<T> e = head; e != null; prev = e, e = e.next){
+			if(e.is.isSimilar(is)){
+				if(prev == null){
+					if(e.next == null){
+						entries.remove(key);
+					} else{
+						entries.put(key, e.next);
+					}
+				} else{
+					prev.next = e.next;
+				}
+
+				size--;
+				return e.value;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the amount of items in this catalog.
+	 * 
+	 * @return The amount of items in this catalog
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Removes all items from this catalog.
+	 */
+	public void clear(){
+		entries.clear();
+		size = 0;
+	}
+
+	private ItemCatalog<T> put(long key, ItemStack is, T value){
+		if(key == ItemKey.NONE){
+			return this;
+		}
+
+		Entry<T> head = entries.get(key);
+
+		for(Entry<T> e = head; e != null; e = e.next){
+			if(e.is.isSimilar(is)){
+				e.value = value;
+				return this;
+			}
+		}
+
+		Entry<T> e = new Entry<>(is, value);
+		e.next = head;
+		entries.put(key, e);
+		size++;
+
+		return this;
+	}
+
+	private T get(long key, ItemStack is){
+		Entry<T> e = find(key, is);
+		return e == null ? null : e.value;
+	}
+
+	private Entry<T> find(long key, ItemStack is){
+		if(key == ItemKey.NONE){
+			return null;
+		}
+
+		for(Entry<T> e = entries.get(key); e != null; e = e.next){
+			if(e.is.isSimilar(is)){
+				return e;
+			}
+		}
+
+		return null;
+	}
+
+	private static class Entry<T>{
+
+		private final ItemStack	is;
+		private T				value;
+		private Entry<T>		next;
+
+		private Entry(ItemStack is, T value){
+			this.is = is;
+			this.value = value;
+		}
+
+	}
+
+}
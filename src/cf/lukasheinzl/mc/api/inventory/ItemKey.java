@@ -0,0 +1,161 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionData;
+
+/**
+ * This class computes 64-bit identity keys of items. Items that are similar (see
+ * {@link org.bukkit.inventory.ItemStack#isSimilar(ItemStack) isSimilar}) have the same key; the amount is ignored. The
+ * key covers the type, durability, display name, lore, enchantments, potion type and flags and does not depend on the
+ * JVM, so it can also be stored.<br>
+ * Different items may have the same key if they only differ in other meta data (e.g. the owner of a skull), so a
+ * matching key should be confirmed with isSimilar if such items are mixed.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ItemKey{
+
+	/**
+	 * The key of no item (null or air).
+	 */
+	public static final long	NONE		= 0;
+
+	private static final long	FNV_OFFSET	= 0xcbf29ce484222325L;
+	private static final long	FNV_PRIME	= 0x100000001b3L;
+
+	private ItemKey(){
+
+	}
+
+	/**
+	 * Computes the key of the given ItemStack.
+	 * 
+	 * @param is
+	 *            The ItemStack
+	 * @return The key of the ItemStack or {@link #NONE} if it is null or air
+	 */
+	public static long of(ItemStack is){
+		if(is == null || is.getType() == Material.AIR){
+			return NONE;
+		}
+
+		if(!is.hasItemMeta()){
+			return of(is.getType(), is.getDurability(), null, null, null, null, null);
+		}
+
+		ItemMeta im = is.getItemMeta();
+		PotionData potion = im instanceof PotionMeta ? ((PotionMeta) im).getBasePotionData() : null;
+
+		return of(is.getType(), is.getDurability(), im.hasDisplayName() ? im.getDisplayName() : null, im.hasLore() ? im.getLore() : null,
+				im.hasEnchants() ? im.getEnchants() : null, potion, im.getItemFlags());
+	}
+
+	/**
+	 * Computes the key of the item described by the given ItemSpec. It is equal to the key of the built item.
+	 * 
+	 * @param spec
+	 *            The ItemSpec
+	 * @return The key of the described item
+	 */
+	public static long of(ItemSpec spec){
+		if(spec.getType() == Material.AIR){
+			return NONE;
+		}
+
+		Map<Enchantment, Integer> enchants = new HashMap<>();
+
+		for(APIEnchantment e: spec.getEnchantments()){
+			enchants.put(e.getEnchantment(), e.getLevel());
+		}
+
+		return of(spec.getType(), spec.getDurability(), spec.getName(), spec.getLore(), enchants, spec.getPotionData(), null);
+	}
+
+	private static long of(Material type, short durability, String name, List<String> lore, Map<Enchantment, Integer> enchants,
+			PotionData potion, Collection<ItemFlag> flags){
+		long h = FNV_OFFSET;
+
+		h = mix(h, type.name());
+		h = mix(h, durability);
+		h = mix(h, name == null || name.isEmpty() ? null : name);
+
+		if(lore != null && !lore.isEmpty()){
+			h = mix(h, lore.size());
+
+			for(String line: lore){
+				h = mix(h, line);
+			}
+		}
+
+		if(enchants != null && !enchants.isEmpty()){
+			// sorted by name so the order of the meta does not matter
+			List<Map.Entry<Enchantment, Integer>> list = new ArrayList<>(enchants.entrySet());
+			list.sort((a, b) -> a.getKey().getName().compareTo(b.getKey().getName()));
+			h = mix(h, list.size());
+
+			for(Map.Entry<Enchantment, Integer> e: list){
+				h = mix(mix(h, e.getKey().getName()), e.getValue());
+			}
+		}
+
+		if(potion != null){
+			h = mix(h, potion.getType().name());
+			h = mix(h, (potion.isExtended() ? 1 : 0) | (potion.isUpgraded() ? 2 : 0));
+		}
+
+		if(flags != null && !flags.isEmpty()){
+			long bits = 0;
+
+			for(ItemFlag f: flags){
+				bits |= 1L << f.ordinal();
+			}
+
+			h = mix(h, bits);
+		}
+
+		h = finish(h);
+		return h == NONE ? 1 : h;
+	}
+
+	private static long mix(long h, String s){
+		if(s == null){
+			return mix(h, -1);
+		}
+
+		h = mix(h, s.length());
+
+		for(int i = 0; i < s.length(); i++){
+			h = (h ^ s.charAt(i)) * FNV_PRIME;
+		}
+
+		return h;
+	}
+
+	private static long mix(long h, long v){
+		for(int i = 0; i < 64; i += 16){
+			h = (h ^ ((v >>> i) & 0xFFFF)) * FNV_PRIME;
+		}
+
+		return h;
+	}
+
+	private static long finish(long h){
+		// spreads the bits so the lower bits can be used as a hash
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	}
+
+}
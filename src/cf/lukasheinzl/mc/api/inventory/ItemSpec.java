@@ -0,0 +1,250 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionData;
+
+/**
+ * This class is an immutable description of an item: its type, amount, durability, display name, lore, enchantments
+ * and potion type. Equal specs describe equal items, so they can be used as keys of an
+ * {@link cf.lukasheinzl.mc.api.inventory.ItemCache ItemCache}. The {@link cf.lukasheinzl.mc.api.inventory.ItemKey
+ * identity key} and the hash code are computed once.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ItemSpec{
+
+	private final Material				type;
+	private final int					amount;
+	private final short					durability;
+	private final String				name;
+	private final List<String>			lore;
+	private final List<APIEnchantment>	enchants;
+	private final PotionData			potion;
+	private final long					key;
+	private final int					hash;
+
+	private ItemSpec(Material type, int amount, short durability, String name, List<String> lore, List<APIEnchantment> enchants,
+			PotionData potion){
+		this.type = type;
+		this.amount = amount;
+		this.durability = durability;
+		this.name = name;
+		this.lore = lore;
+		this.enchants = enchants;
+		this.potion = potion;
+		this.key = ItemKey.of(this);
+		this.hash = Long.hashCode(key) * 31 + amount;
+	}
+
+	/**
+	 * Creates a new ItemSpec of the given type and amount.
+	 * 
+	 * @param type
+	 *            The type of the item
+	 * @param amount
+	 *            The amount of the item
+	 * @return The newly created ItemSpec
+	 */
+	public static ItemSpec of(Material type, int amount){
+		return new ItemSpec(type, amount, (short) 0, null, null, Collections.emptyList(), null);
+	}
+
+	/**
+	 * Creates a new ItemSpec like this one with the given durability (e.g. the color of glass panes).
+	 * 
+	 * @param durability
+	 *            The durability of the item
+	 * @return The newly created ItemSpec
+	 */
+	public ItemSpec withDurability(int durability){
+		return new ItemSpec(type, amount, (short) durability, name, lore, enchants, potion);
+	}
+
+	/**
+	 * Creates a new ItemSpec like this one with the given display name.
+	 * 
+	 * @param name
+	 *            The display name of the item
+	 * @return The newly created ItemSpec
+	 */
+	public ItemSpec withName(String name){
+		return new ItemSpec(type, amount, durability, name, lore, enchants, potion);
+	}
+
+	/**
+	 * Creates a new ItemSpec like this one with the given lore.
+	 * 
+	 * @param lore
+	 *            The lore of the item
+	 * @return The newly created ItemSpec
+	 */
+	public ItemSpec withLore(String... lore){
+		return new ItemSpec(type, amount, durability, name, Collections.unmodifiableList(new ArrayList<>(Arrays.asList(lore))), enchants,
+				potion);
+	}
+
+	/**
+	 * Creates a new ItemSpec like this one with the given enchantments added. The enchantments are kept sorted by name
+	 * (and level), so the order they are added in does not matter.
+	 * 
+	 * @param enchants
+	 *            The enchantments to add
+	 * @return The newly created ItemSpec
+	 */
+	public ItemSpec withEnchantments(APIEnchantment... enchants){
+		List<APIEnchantment> list = new ArrayList<>(this.enchants);
+		list.addAll(Arrays.asList(enchants));
+		list.sort((a, b) -> {
+			int c = a.getEnchantment().getName().compareTo(b.getEnchantment().getName());
+			return c != 0 ? c : Integer.compare(a.getLevel(), b.getLevel());
+		});
+
+		return new ItemSpec(type, amount, durability, name, lore, Collections.unmodifiableList(list), potion);
+	}
+
+	/**
+	 * Creates a new ItemSpec like this one with the given potion type.
+	 * 
+	 * @param potion
+	 *            The potion type
+	 * @return The newly created ItemSpec
+	 */
+	public ItemSpec withPotionData(PotionData potion){
+		return new ItemSpec(type, amount, durability, name, lore, enchants, potion);
+	}
+
+	/**
+	 * Returns the type of the item.
+	 * 
+	 * @return The type of the item
+	 */
+	public Material getType(){
+		return type;
+	}
+
+	/**
+	 * Returns the amount of the item.
+	 * 
+	 * @return The amount of the item
+	 */
+	public int getAmount(){
+		return amount;
+	}
+
+	/**
+	 * Returns the durability of the item.
+	 * 
+	 * @return The durability of the item
+	 */
+	public short getDurability(){
+		return durability;
+	}
+
+	/**
+	 * Returns the display name of the item.
+	 * 
+	 * @return The display name of the item or null
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * Returns the lore of the item.
+	 * 
+	 * @return The unmodifiable lore of the item or null
+	 */
+	public List<String> getLore(){
+		return lore;
+	}
+
+	/**
+	 * Returns the enchantments of the item.
+	 * 
+	 * @return The unmodifiable list of enchantments, sorted by name
+	 */
+	public List<APIEnchantment> getEnchantments(){
+		return enchants;
+	}
+
+	/**
+	 * Returns the potion type of the item.
+	 * 
+	 * @return The potion type of the item or null
+	 */
+	public PotionData getPotionData(){
+		return potion;
+	}
+
+	/**
+	 * Returns the identity key of the described item.
+	 * 
+	 * @return The identity key of the described item
+	 * @see cf.lukasheinzl.mc.api.inventory.ItemKey#of(ItemSpec) ItemKey.of(ItemSpec)
+	 */
+	public long getKey(){
+		return key;
+	}
+
+	/**
+	 * Builds a new APIItem described by this spec.
+	 * 
+	 * @return The newly created APIItem
+	 * @see cf.lukasheinzl.mc.api.inventory.ItemCache#get(ItemSpec) ItemCache.get(ItemSpec) - to cache equal items
+	 */
+	public APIItem build(){
+		ItemBuilder ib = new ItemBuilder(new ItemStack(type, amount, durability));
+
+		if(name != null){
+			ib.setName(name);
+		}
+
+		if(lore != null){
+			ib.setLore(lore);
+		}
+
+		if(potion != null){
+			ib.setPotionData(potion);
+		}
+
+		APIItem ai = ib.addEnchantments(enchants.toArray(new APIEnchantment[enchants.size()])).build();
+		ai.setKey(key);
+
+		return ai;
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if(this == o){
+			return true;
+		}
+
+		if(!(o instanceof ItemSpec)){
+			return false;
+		}
+
+		ItemSpec is = (ItemSpec) o;
+		return key == is.key && type == is.type && amount == is.amount && durability == is.durability && Objects.equals(name, is.name)
+				&& Objects.equals(lore, is.lore) && enchants.equals(is.enchants) && Objects.equals(potion, is.potion);
+	}
+
+	@Override
+	public int hashCode(){
+		return hash;
+	}
+
+	@Override
+	public String toString(){
+		return "ItemSpec{" + type + " x" + amount + ":" + durability + ", name=" + name + ", lore=" + lore + ", enchants=" + enchants.size()
+				+ ", potion=" + potion + "}";
+	}
+
+}
@@ -0,0 +1,62 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This interface provides the entries of a {@link cf.lukasheinzl.mc.api.inventory.PaginatedInventory
+ * PaginatedInventory}. Only the entries of the requested range are fetched, so the source can be backed by a large
+ * list or a database. Pages are prefetched asynchronously, so the methods may be called from any thread.
+ * 
+ * @author Lukas Heinzl
+ *
+ * @param <T>
+ *            The type of the entries
+ */
+public interface PageSource<T>{
+
+	/**
+	 * Returns the total amount of entries.
+	 * 
+	 * @return The total amount of entries
+	 */
+	int size();
+
+	/**
+	 * Returns the entries in the given range.
+	 * 
+	 * @param from
+	 *            The index of the first entry (inclusive)
+	 * @param to
+	 *            The index of the last entry (exclusive)
+	 * @return The entries in the given range
+	 */
+	List<T> get(int from, int to);
+
+	/**
+	 * Creates a new PageSource backed by the given list. Lists with random access (e.g. ArrayList) fetch a page
+	 * independently of their size.
+	 * 
+	 * @param <T>
+	 *            The type of the entries
+	 * @param list
+	 *            The list of entries
+	 * @return The newly created PageSource
+	 */
+	static <T> PageSource<T> of(List<T> list){
+		return new PageSource<T>(){
+
+			@Override
+			public int size(){
+				return list.size();
+			}
+
+			@Override
+			public List<T> get(int from, int to){
+				return new ArrayList<>(list.subList(Math.min(from, list.size()), Math.min(to, list.size())));
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,334 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * This class represents an inventory showing a large amount of entries on multiple pages. The entries are fetched
+ * from a {@link cf.lukasheinzl.mc.api.inventory.PageSource PageSource} and rendered into items only for the visible
+ * page, so opening and flipping pages does not depend on the total amount of entries. The next page is prefetched in
+ * the background while the current page is shown.<br>
+ * All rows but the last one show entries; the last row contains the fixed navigation slots. Clicks are cancelled.
+ * 
+ * @author Lukas Heinzl
+ *
+ * @param <T>
+ *            The type of the entries
+ */
+public class PaginatedInventory<T>{
+
+	private final APIInventory								i;
+	private final PageSource<T>								source;
+	private final Function<? super T, ? extends APIItem>	renderer;
+	private final SlotRegion								content;
+	private final InventoryListener							listener;
+	private Executor										executor	= ForkJoinPool.commonPool();
+	private BiConsumer<InventoryClickEvent, T>				action;
+	private int												previousSlot;
+	private int												nextSlot;
+	private APIItem											previousItem	= new APIItem(Material.ARROW, 1, "Previous page");
+	private APIItem											nextItem		= new APIItem(Material.ARROW, 1, "Next page");
+	private Page<T>											current;
+	private Page<T>											previous;
+	private CompletableFuture<Page<T>>						prefetched;
+	private int												prefetchedNumber	= -1;
+
+	/**
+	 * Constructs a new PaginatedInventory with the given amount of rows and display name.
+	 * 
+	 * @param rows
+	 *            The amount of rows this inventory should have (at least 2)
+	 * @param name
+	 *            The display name of this inventory
+	 * @param source
+	 *            The source of the entries
+	 * @param renderer
+	 *            The function creating the item for an entry (may be called asynchronously)
+	 * @throws IllegalArgumentException
+	 *             If rows is less than 2
+	 * @see #PaginatedInventory(Player, int, String, PageSource, Function) PaginatedInventory(Player, int, String,
+	 *      PageSource, Function) - Player defaults to null
+	 */
+	public PaginatedInventory(int rows, String name, PageSource<T> source, Function<? super T, ? extends APIItem> renderer){
+		this(null, rows, name, source, renderer);
+	}
+
+	/**
+	 * Constructs a new PaginatedInventory with the given player as the inventory holder, the given amount of rows and
+	 * display name. The first page is shown immediately.
+	 * 
+	 * @param p
+	 *            The holder of this inventory or null
+	 * @param rows
+	 *            The amount of rows this inventory should have (at least 2)
+	 * @param name
+	 *            The display name of this inventory
+	 * @param source
+	 *            The source of the entries
+	 * @param renderer
+	 *            The function creating the item for an entry (may be called asynchronously)
+	 * @throws IllegalArgumentException
+	 *             If rows is less than 2
+	 */
+	public PaginatedInventory(Player p, int rows, String name, PageSource<T> source, Function<? super T, ? extends APIItem> renderer){
+		if(rows < 2){
+			throw new IllegalArgumentException("A PaginatedInventory needs at least 2 rows, got " + rows);
+		}
+
+		this.i = new APIInventory(p, rows, name);
+		this.source = source;
+		this.renderer = renderer;
+		this.content = SlotRegion.rectangle(0, 0, rows - 2, 8);
+		this.previousSlot = (rows - 1) * 9;
+		this.nextSlot = rows * 9 - 1;
+		this.listener = new InventoryListener(i, true);
+
+		listener.registerAction(content, this::handleClick);
+		listener.registerAction(previousSlot, e -> {
+			if(isTop(e)){
+				previousPage();
+			}
+		});
+		listener.registerAction(nextSlot, e -> {
+			if(isTop(e)){
+				nextPage();
+			}
+		});
+		setPage(0);
+	}
+
+	/**
+	 * Returns the APIInventory showing the pages.
+	 * 
+	 * @return The APIInventory showing the pages
+	 */
+	public APIInventory getInventory(){
+		return i;
+	}
+
+	/**
+	 * Opens this inventory for the given player.
+	 * 
+	 * @param p
+	 *            The player to open the inventory for
+	 */
+	public void open(Player p){
+		p.openInventory(i.getInventory());
+	}
+
+	/**
+	 * Returns the current page.
+	 * 
+	 * @return The current page (starting at 0)
+	 */
+	public int getPage(){
+		return current.number;
+	}
+
+	/**
+	 * Returns the amount of entries per page.
+	 * 
+	 * @return The amount of entries per page
+	 */
+	public int getPageSize(){
+		return content.size();
+	}
+
+	/**
+	 * Returns the amount of pages.
+	 * 
+	 * @return The amount of pages (at least 1)
+	 */
+	public int getPageCount(){
+		return Math.max(1, (source.size() + content.size() - 1) / content.size());
+	}
+
+	/**
+	 * Shows the next page, if there is one.
+	 * 
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> nextPage(){
+		return setPage(current.number + 1);
+	}
+
+	/**
+	 * Shows the previous page, if there is one.
+	 * 
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> previousPage(){
+		return setPage(current.number - 1);
+	}
+
+	/**
+	 * Shows the given page. The page is taken from the prefetched pages if possible and built otherwise.
+	 * 
+	 * @param page
+	 *            The page to show (starting at 0)
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> setPage(int page){
+		int count = getPageCount();
+
+		if(page < 0 || page >= count){
+			return this;
+		}
+
+		Page<T> next = null;
+
+		if(current != null && current.number == page){
+			next = current;
+		} else if(previous != null && previous.number == page){
+			next = previous;
+		} else if(prefetched != null && prefetchedNumber == page && prefetched.isDone() && !prefetched.isCompletedExceptionally()){
+			next = prefetched.join();
+		}
+
+		if(next == null){
+			next = build(page);
+		}
+
+		if(current != next){
+			previous = current;
+		}
+
+		current = next;
+		render(count);
+		prefetch(page + 1, count);
+		return this;
+	}
+
+	/**
+	 * Discards all prefetched pages and rebuilds the current page. This should be called after the entries changed.
+	 * 
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> refresh(){
+		int page = current.number;
+
+		current = null;
+		previous = null;
+		prefetched = null;
+		prefetchedNumber = -1;
+
+		return setPage(Math.min(page, getPageCount() - 1));
+	}
+
+	/**
+	 * Sets the action performed when an entry is clicked.
+	 * 
+	 * @param action
+	 *            The action receiving the click and the clicked entry
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> setAction(BiConsumer<InventoryClickEvent, T> action){
+		this.action = action;
+		listener.own(action);
+		return this;
+	}
+
+	/**
+	 * Sets the items of the navigation slots. They are only shown if there is a previous or next page.
+	 * 
+	 * @param previousItem
+	 *            The item leading to the previous page
+	 * @param nextItem
+	 *            The item leading to the next page
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> setNavigationItems(APIItem previousItem, APIItem nextItem){
+		this.previousItem = previousItem;
+		this.nextItem = nextItem;
+
+		render(getPageCount());
+		return this;
+	}
+
+	/**
+	 * Sets the executor used to prefetch pages. By default the common ForkJoinPool is used.
+	 * 
+	 * @param executor
+	 *            The executor
+	 * @return This PaginatedInventory - allows method chaining
+	 */
+	public PaginatedInventory<T> setPrefetchExecutor(Executor executor){
+		this.executor = executor;
+		return this;
+	}
+
+	private void handleClick(InventoryClickEvent e, int index){
+		if(action != null && isTop(e) && index < current.entries.size()){
+			action.accept(e, current.entries.get(index));
+		}
+	}
+
+	// clicks in the player's own inventory report its slot-ids, which overlap with the content and navigation slots
+	private boolean isTop(InventoryClickEvent e){
+		return e.getRawSlot() >= 0 && e.getRawSlot() < i.getInventory().getSize();
+	}
+
+	private Page<T> build(int page){
+		int from = page * content.size();
+		List<T> entries = source.get(from, from + content.size());
+		ItemStack[] items = new ItemStack[entries.size()];
+
+		for(int j = 0; j < items.length; j++){
+			APIItem item = renderer.apply(entries.get(j));
+			items[j] = item == null ? null : item.getItemStack();
+		}
+
+		return new Page<>(page, entries, items);
+	}
+
+	private void render(int count){
+		ItemStack[] contents = new ItemStack[i.getInventory().getSize()];
+
+		for(int j = 0; j < current.items.length; j++){
+			contents[content.getSlot(j)] = current.items[j];
+		}
+
+		if(current.number > 0 && previousItem != null){
+			contents[previousSlot] = previousItem.getItemStack();
+		}
+
+		if(current.number + 1 < count && nextItem != null){
+			contents[nextSlot] = nextItem.getItemStack();
+		}
+
+		i.getInventory().setContents(contents);
+	}
+
+	private void prefetch(int page, int count){
+		if(page >= count || prefetchedNumber == page){
+			return;
+		}
+
+		prefetchedNumber = page;
+		prefetched = CompletableFuture.supplyAsync(() -> build(page), executor);
+	}
+
+	private static class Page<T>{
+
+		private final int			number;
+		private final List<T>		entries;
+		private final ItemStack[]	items;
+
+		private Page(int number, List<T> entries, ItemStack[] items){
+			this.number = number;
+			this.entries = entries;
+			this.items = items;
+		}
+
+	}
+
+}
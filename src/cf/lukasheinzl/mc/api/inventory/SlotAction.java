@@ -0,0 +1,26 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+/**
+ * This interface represents an action performed when a slot of a {@link cf.lukasheinzl.mc.api.inventory.SlotRegion
+ * SlotRegion} is clicked.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+@FunctionalInterface
+public interface SlotAction{
+
+	/**
+	 * Performs the action.
+	 * 
+	 * @param e
+	 *            The event of the click
+	 * @param index
+	 *            The index of the clicked slot within the region (see
+	 *            {@link cf.lukasheinzl.mc.api.inventory.SlotRegion#getSlot(int) getSlot(int)})
+	 */
+	void accept(InventoryClickEvent e, int index);
+
+}
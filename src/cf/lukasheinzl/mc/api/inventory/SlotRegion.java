@@ -0,0 +1,132 @@
+package cf.lukasheinzl.mc.api.inventory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class represents an ordered set of inventory-slots, e.g. the grid of a shop. A single
+ * {@link cf.lukasheinzl.mc.api.inventory.SlotAction SlotAction} can be registered for all slots of a region; it
+ * receives the index of the clicked slot within the region.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class SlotRegion{
+
+	private final int[] slots;
+
+	private SlotRegion(int[] slots){
+		this.slots = slots;
+	}
+
+	/**
+	 * Creates a new SlotRegion containing the given slots. The index of a slot is its position in the given order.
+	 * 
+	 * @param slots
+	 *            The slot-ids
+	 * @return The newly created SlotRegion
+	 */
+	public static SlotRegion of(int... slots){
+		return new SlotRegion(slots.clone());
+	}
+
+	/**
+	 * Creates a new SlotRegion containing the set bits of the given BitSet. The slots are indexed in ascending order.
+	 * 
+	 * @param slots
+	 *            The slot-ids
+	 * @return The newly created SlotRegion
+	 */
+	public static SlotRegion of(BitSet slots){
+		return new SlotRegion(slots.stream().toArray());
+	}
+
+	/**
+	 * Creates a new SlotRegion containing all slots of the given rectangle. The slots are indexed row by row, e.g. the
+	 * region from row 1, column 1 to row 4, column 7 contains 28 slots with the indices 0 to 27.
+	 * 
+	 * @param fromRow
+	 *            The first row (inclusive)
+	 * @param fromCol
+	 *            The first column (inclusive)
+	 * @param toRow
+	 *            The last row (inclusive)
+	 * @param toCol
+	 *            The last column (inclusive)
+	 * @return The newly created SlotRegion
+	 * @throws IllegalArgumentException
+	 *             If the rows or columns are negative or in the wrong order, or a column is greater than 8
+	 */
+	public static SlotRegion rectangle(int fromRow, int fromCol, int toRow, int toCol){
+		if(fromRow < 0 || fromRow > toRow || fromCol < 0 || fromCol > toCol || toCol > 8){
+			throw new IllegalArgumentException("Invalid rectangle: rows " + fromRow + " to " + toRow + ", columns " + fromCol + " to " + toCol);
+		}
+
+		int cols = toCol - fromCol + 1;
+		int[] slots = new int[(toRow - fromRow + 1) * cols];
+
+		for(int i = 0; i < slots.length; i++){
+			slots[i] = (fromRow + i / cols) * 9 + fromCol + i % cols;
+		}
+
+		return new SlotRegion(slots);
+	}
+
+	/**
+	 * Returns the amount of slots in this region.
+	 * 
+	 * @return The amount of slots in this region
+	 */
+	public int size(){
+		return slots.length;
+	}
+
+	/**
+	 * Returns the slot-id at the given index.
+	 * 
+	 * @param index
+	 *            The index within this region
+	 * @return The slot-id
+	 */
+	public int getSlot(int index){
+		return slots[index];
+	}
+
+	/**
+	 * Returns the index of the given slot within this region.
+	 * 
+	 * @param slot
+	 *            The slot-id
+	 * @return The index or -1 if the slot is not part of this region
+	 */
+	public int indexOf(int slot){
+		for(int i = 0; i < slots.length; i++){
+			if(slots[i] == slot){
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the slots of this region as a BitSet.
+	 * 
+	 * @return The slots of this region
+	 */
+	public BitSet toBitSet(){
+		BitSet bs = new BitSet();
+
+		for(int slot: slots){
+			bs.set(slot);
+		}
+
+		return bs;
+	}
+
+	@Override
+	public String toString(){
+		return "SlotRegion" + Arrays.toString(slots);
+	}
+
+}
@@ -0,0 +1,77 @@
+package cf.lukasheinzl.mc.api.inventory.vault;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class stores every vault in its own file in the given directory. A vault is written to a temporary file first
+ * and then moved over the old file, so a crash while saving never leaves a half-written vault.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class FileVaultStore implements VaultStore{
+
+	private final Path dir;
+
+	/**
+	 * Constructs a new FileVaultStore storing the vaults in the given directory. The directory is created when the
+	 * first vault is written.
+	 * 
+	 * @param dir
+	 *            The directory of the vaults (e.g. a folder in the plugin's data folder)
+	 */
+	public FileVaultStore(Path dir){
+		this.dir = dir;
+	}
+
+	@Override
+	public ByteBuffer read(String id) throws IOException{
+		try(FileChannel fc = FileChannel.open(dir.resolve(id + ".vault"), StandardOpenOption.READ)){
+			ByteBuffer data = ByteBuffer.allocate((int) fc.size());
+
+			while(data.hasRemaining() && fc.read(data) >= 0){
+				// reads until the buffer is full
+			}
+
+			data.flip();
+			return data;
+		} catch(NoSuchFileException e){
+			return null;
+		}
+	}
+
+	@Override
+	public void write(String id, ByteBuffer data) throws IOException{
+		Files.createDirectories(dir);
+
+		Path tmp = dir.resolve(id + ".tmp");
+		ByteBuffer src = data.duplicate();
+
+		try(FileChannel fc = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			while(src.hasRemaining()){
+				fc.write(src);
+			}
+
+			fc.force(false);
+		}
+
+		Files.move(tmp, dir.resolve(id + ".vault"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Returns the directory of the vaults.
+	 * 
+	 * @return The directory of the vaults
+	 */
+	public Path getDirectory(){
+		return dir;
+	}
+
+}
@@ -0,0 +1,41 @@
+package cf.lukasheinzl.mc.api.inventory.vault;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class stores vaults in memory. They are lost when the server stops, so it is meant for tests.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class MemoryVaultStore implements VaultStore{
+
+	private final Map<String, ByteBuffer> vaults = new ConcurrentHashMap<>();
+
+	@Override
+	public ByteBuffer read(String id){
+		ByteBuffer data = vaults.get(id);
+		return data == null ? null : data.duplicate();
+	}
+
+	@Override
+	public void write(String id, ByteBuffer data){
+		ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+		copy.put(data.duplicate());
+		copy.flip();
+
+		vaults.put(id, copy);
+	}
+
+	/**
+	 * Returns the amount of stored vaults.
+	 * 
+	 * @return The amount of stored vaults
+	 */
+	public int size(){
+		return vaults.size();
+	}
+
+}
@@ -0,0 +1,400 @@
+package cf.lukasheinzl.mc.api.inventory.vault;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import cf.lukasheinzl.mc.api.API;
+import cf.lukasheinzl.mc.api.inventory.APIInventory;
+import cf.lukasheinzl.mc.api.inventory.InventoryCodec;
+import cf.lukasheinzl.mc.api.inventory.InventoryTemplate;
+
+/**
+ * This class manages per-player vaults (e.g. backpacks or ender-chest extensions) stored in a
+ * {@link cf.lukasheinzl.mc.api.inventory.vault.VaultStore VaultStore}. Vaults are read and decoded on a background
+ * thread when they are opened, so the server thread never waits for the disk. Recently used vaults are cached; once
+ * more vaults than allowed are not viewed by anybody, the least recently used of them are evicted. Vaults being viewed
+ * are never evicted, and a vault handed out by {@link #load(UUID, int)} stays cached at least until the end of the
+ * tick, so it can be opened or changed and saved in the callback without being evicted in between.<br>
+ * A vault is saved when its last viewer closes it. Saves are encoded on the server thread and written behind by the
+ * background thread; saving a vault again before it was written replaces the waiting state, so only the last state of
+ * every vault is written. Loading a vault that is waiting to be written returns the waiting state. If a vault can not
+ * be written, its state keeps waiting and writing it is retried with increasing delays.<br>
+ * The manager should only be accessed from the server thread and must be {@link #close() closed} when the plugin is
+ * disabled.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class VaultManager implements Listener{
+
+	private static final AtomicInteger								MANAGER_COUNT	= new AtomicInteger();
+
+	private final Plugin											plugin;
+	private final VaultStore										store;
+	private final int												rows;
+	private final String											name;
+	private final int												maxCached;
+	private final ScheduledExecutorService							io;
+	private final LinkedHashMap<String, APIInventory>				cache			= new LinkedHashMap<>(16, 0.75F, true);
+	private final Map<Inventory, String>							ids				= new HashMap<>();
+	private final Map<String, CompletableFuture<APIInventory>>		loading			= new HashMap<>();
+	private final Map<String, ByteBuffer>							pending			= new ConcurrentHashMap<>();
+	private final Set<String>										pinned			= new HashSet<>();
+	// only accessed by the background thread
+	private final Map<String, Integer>								failures		= new HashMap<>();
+
+	/**
+	 * Constructs a new VaultManager owned by the PluginAPI.
+	 * 
+	 * @param store
+	 *            The storage of the vaults
+	 * @param rows
+	 *            The amount of rows of new vaults
+	 * @param name
+	 *            The display name of new vaults
+	 * @param maxCached
+	 *            The maximum amount of cached vaults that nobody is viewing
+	 * @see #VaultManager(Plugin, VaultStore, int, String, int)
+	 */
+	public VaultManager(VaultStore store, int rows, String name, int maxCached){
+		this(JavaPlugin.getPlugin(API.class), store, rows, name, maxCached);
+	}
+
+	/**
+	 * Constructs a new VaultManager. New vaults are created empty with the given amount of rows and display name. The
+	 * listener and the tasks of the manager are registered for the given plugin.
+	 * 
+	 * @param plugin
+	 *            The plugin owning the manager
+	 * @param store
+	 *            The storage of the vaults
+	 * @param rows
+	 *            The amount of rows of new vaults
+	 * @param name
+	 *            The display name of new vaults
+	 * @param maxCached
+	 *            The maximum amount of cached vaults that nobody is viewing
+	 */
+	public VaultManager(Plugin plugin, VaultStore store, int rows, String name, int maxCached){
+		int manager = MANAGER_COUNT.incrementAndGet();
+
+		this.plugin = plugin;
+		this.store = store;
+		this.rows = rows;
+		this.name = name;
+		this.maxCached = maxCached;
+		this.io = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "PluginAPI-Vault-" + manager);
+			t.setDaemon(true);
+			return t;
+		});
+
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	/**
+	 * Returns the id of the given vault, which is used as the key in the {@link VaultStore}.
+	 * 
+	 * @param owner
+	 *            The owner of the vault
+	 * @param number
+	 *            The number of the vault
+	 * @return The id of the vault
+	 */
+	public static String getId(UUID owner, int number){
+		return owner + "-" + number;
+	}
+
+	/**
+	 * Loads the given vault. Cached vaults are returned immediately, others are read on the background thread and
+	 * completed on the server thread. Vaults that do not exist yet are created empty. The vault is not evicted before
+	 * the end of the tick it is handed out in.
+	 * 
+	 * @param owner
+	 *            The owner of the vault
+	 * @param number
+	 *            The number of the vault
+	 * @return A future completed with the vault or exceptionally if it could not be read
+	 */
+	public CompletableFuture<APIInventory> load(UUID owner, int number){
+		String id = getId(owner, number);
+		APIInventory cached = cache.get(id);
+
+		if(cached != null){
+			pin(id);
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		CompletableFuture<APIInventory> f = loading.get(id);
+
+		if(f == null){
+			f = CompletableFuture.supplyAsync(() -> read(id), io).handleAsync((t, ex) -> {
+				loading.remove(id);
+
+				if(ex != null){
+					plugin.getLogger().log(Level.WARNING, "Could not load vault " + id, ex.getCause());
+					throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+				}
+
+				return add(id, t.createView());
+			}, r -> Bukkit.getScheduler().runTask(plugin, r));
+
+			loading.put(id, f);
+		}
+
+		return f;
+	}
+
+	/**
+	 * Loads the given vault of the given player and opens it, if the player is still online.
+	 * 
+	 * @param p
+	 *            The owner of the vault
+	 * @param number
+	 *            The number of the vault
+	 * @return A future completed with the vault or exceptionally if it could not be read
+	 * @see #load(UUID, int)
+	 */
+	public CompletableFuture<APIInventory> open(Player p, int number){
+		return load(p.getUniqueId(), number).thenApply(i -> {
+			if(p.isOnline()){
+				p.openInventory(i.getInventory());
+			}
+
+			return i;
+		});
+	}
+
+	/**
+	 * Saves the given vault, if it is cached. It is encoded immediately and written by the background thread.
+	 * 
+	 * @param owner
+	 *            The owner of the vault
+	 * @param number
+	 *            The number of the vault
+	 */
+	public void save(UUID owner, int number){
+		String id = getId(owner, number);
+		APIInventory i = cache.get(id);
+
+		if(i != null){
+			save(id, i);
+		}
+	}
+
+	/**
+	 * Saves all cached vaults.
+	 */
+	public void saveAll(){
+		for(Map.Entry<String, APIInventory> e: cache.entrySet()){
+			save(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Returns the amount of cached vaults.
+	 * 
+	 * @return The amount of cached vaults
+	 */
+	public int getCachedCount(){
+		return cache.size();
+	}
+
+	/**
+	 * Returns the amount of vaults waiting to be written.
+	 * 
+	 * @return The amount of vaults waiting to be written
+	 */
+	public int getPendingCount(){
+		return pending.size();
+	}
+
+	/**
+	 * Saves all cached vaults and waits up to the given time until all vaults are written. The manager can not be used
+	 * afterwards.
+	 * 
+	 * @param timeout
+	 *            The maximum time to wait in milliseconds
+	 * @return True, if all vaults were written, false if the time ran out or a vault could not be written
+	 */
+	public boolean close(long timeout){
+		HandlerList.unregisterAll(this);
+		saveAll();
+		io.shutdown();
+
+		// nothing is left to evict (and save) once the manager is closed
+		cache.clear();
+		ids.clear();
+		pinned.clear();
+
+		try{
+			return io.awaitTermination(timeout, TimeUnit.MILLISECONDS) && pending.isEmpty();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Saves all cached vaults and waits up to 10 seconds until all vaults are written.
+	 * 
+	 * @return True, if all vaults were written
+	 * @see #close(long)
+	 */
+	public boolean close(){
+		return close(10000);
+	}
+
+	@EventHandler
+	public void onClose(InventoryCloseEvent e){
+		String id = ids.get(e.getInventory());
+
+		// the closing player is still a viewer
+		if(id != null && e.getInventory().getViewers().size() <= 1){
+			save(id, cache.get(id));
+			evict(e.getInventory());
+		}
+	}
+
+	private InventoryTemplate read(String id){
+		ByteBuffer data = pending.get(id);
+
+		try{
+			data = data == null ? store.read(id) : data.duplicate();
+		} catch(IOException e){
+			throw new CompletionException(e);
+		}
+
+		if(data == null){
+			return new InventoryTemplate(rows, name, new ItemStack[0]);
+		}
+
+		InventoryTemplate t = InventoryCodec.decodeLayout(data);
+
+		if(t == null){
+			// never replace a vault that could not be decoded with an empty one
+			throw new CompletionException(new IOException("Invalid data in vault " + id));
+		}
+
+		return t;
+	}
+
+	private APIInventory add(String id, APIInventory i){
+		cache.put(id, i);
+		ids.put(i.getInventory(), id);
+		pin(id);
+		evict(null);
+
+		return i;
+	}
+
+	private void pin(String id){
+		// a single task per tick releases all vaults handed out during the tick
+		if(pinned.add(id) && pinned.size() == 1){
+			Bukkit.getScheduler().runTask(plugin, () -> {
+				pinned.clear();
+				evict(null);
+			});
+		}
+	}
+
+	private void evict(Inventory closing){
+		if(cache.size() <= maxCached){
+			return;
+		}
+
+		// only vaults nobody is viewing count against the limit, the least recently used of them are evicted first
+		List<String> idle = new ArrayList<>();
+
+		for(Map.Entry<String, APIInventory> e: cache.entrySet()){
+			Inventory i = e.getValue().getInventory();
+
+			// the closing player is still a viewer
+			if(i == closing || i.getViewers().isEmpty()){
+				idle.add(e.getKey());
+			}
+		}
+
+		List<String> evicted = new ArrayList<>();
+
+		for(int j = 0; j < idle.size() && idle.size() - evicted.size() > maxCached; j++){
+			if(!pinned.contains(idle.get(j))){
+				evicted.add(idle.get(j));
+			}
+		}
+
+		for(String id: evicted){
+			APIInventory i = cache.remove(id);
+			ids.remove(i.getInventory());
+			save(id, i);
+		}
+	}
+
+	private void save(String id, APIInventory i){
+		if(pending.put(id, InventoryCodec.encode(i)) == null){
+			io.execute(() -> write(id));
+		}
+	}
+
+	private void write(String id){
+		ByteBuffer data;
+
+		// a newer state saved while writing is written right after
+		while((data = pending.get(id)) != null){
+			try{
+				store.write(id, data.duplicate());
+			} catch(IOException e){
+				// the state keeps waiting, so it is still loaded and not lost
+				int attempt = failures.merge(id, 1, Integer::sum);
+				plugin.getLogger().log(Level.WARNING, "Could not save vault " + id + " (attempt " + attempt + ")", e);
+				retry(id, attempt);
+				return;
+			}
+
+			failures.remove(id);
+
+			if(pending.remove(id, data)){
+				return;
+			}
+		}
+	}
+
+	private void retry(String id, int attempt){
+		long delay = Math.min(1000L << Math.min(attempt - 1, 6), 60000);
+
+		try{
+			io.schedule(() -> write(id), delay, TimeUnit.MILLISECONDS);
+		} catch(RejectedExecutionException e){
+			// the manager is closed, close() reports the vault as not written
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package cf.lukasheinzl.mc.api.inventory.vault;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This interface represents the storage of encoded vaults. It is only accessed by the I/O thread of a
+ * {@link cf.lukasheinzl.mc.api.inventory.vault.VaultManager VaultManager}, so implementations may block.
+ * 
+ * @author Lukas Heinzl
+ *
+ * @see cf.lukasheinzl.mc.api.inventory.vault.FileVaultStore FileVaultStore
+ * @see cf.lukasheinzl.mc.api.inventory.vault.MemoryVaultStore MemoryVaultStore
+ */
+public interface VaultStore{
+
+	/**
+	 * Reads the vault with the given id.
+	 * 
+	 * @param id
+	 *            The id of the vault
+	 * @return The encoded vault, ready to be read, or null if there is no such vault
+	 * @throws IOException
+	 *             If the vault could not be read
+	 */
+	ByteBuffer read(String id) throws IOException;
+
+	/**
+	 * Writes the vault with the given id, replacing its previous contents.
+	 * 
+	 * @param id
+	 *            The id of the vault
+	 * @param data
+	 *            The encoded vault
+	 * @throws IOException
+	 *             If the vault could not be written
+	 */
+	void write(String id, ByteBuffer data) throws IOException;
+
+}
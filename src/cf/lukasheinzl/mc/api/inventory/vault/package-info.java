@@ -0,0 +1,4 @@
+/**
+ * This package contains classes that load and save per-player vaults (e.g. backpacks) off the server thread.
+ */
+package cf.lukasheinzl.mc.api.inventory.vault;
\ No newline at end of file
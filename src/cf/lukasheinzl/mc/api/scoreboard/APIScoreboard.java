@@ -7,26 +7,45 @@ import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.bukkit.scoreboard.Scoreboard;
 
+import cf.lukasheinzl.mc.api.API;
+
 /**
- * This class represents a scoreboard.
+ * This class represents a scoreboard. Changes are sent to the players at most once per tick (see {@link #update()}),
+ * so it should only be accessed from the server thread.<br>
+ * Teams and objectives are indexed by their internal names. Viewers are kept by their UUID and are removed
+ * automatically when they leave the server.
  * 
  * @author Lukas Heinzl
  *
  */
 public class APIScoreboard implements Serializable{
 
-	private static final long			serialVersionUID	= -4722894127374890177L;
-	private transient Scoreboard		s;
-	private final List<APIObjective>	objectives			= new ArrayList<>();
-	private final List<APITeam>			teams				= new ArrayList<>();
-	private final List<Player>			players				= new ArrayList<>();
+	private static final long							serialVersionUID	= -4722894127374890177L;
+	private static final Map<UUID, Set<APIScoreboard>>	VIEWERS				= new HashMap<>();
+	private transient Scoreboard						s;
+	private final List<APIObjective>					objectives			= new ArrayList<>();
+	private final List<APITeam>							teams				= new ArrayList<>();
+	private transient Map<String, APIObjective>			objectiveIndex		= new HashMap<>();
+	private transient Map<String, APITeam>				teamIndex			= new HashMap<>();
+	private transient Map<UUID, Player>					players				= new LinkedHashMap<>();
+	private transient boolean							dirty;
+	private transient BukkitTask						task;
 
 	/**
 	 * Constructs a new APIScoreboard.
@@ -54,6 +73,7 @@ public class APIScoreboard implements Serializable{
 	public APITeam registerTeam(String name){
 		APITeam t = new APITeam(s.registerNewTeam(name));
 		teams.add(t);
+		teamIndex.put(name, t);
 
 		return t;
 	}
@@ -81,7 +101,7 @@ public class APIScoreboard implements Serializable{
 	 *            The internal name of the team
 	 */
 	public void unregisterTeam(String name){
-		APITeam t = getTeam(name);
+		APITeam t = teamIndex.remove(name);
 		t.getTeam().unregister();
 		teams.remove(t);
 	}
@@ -94,13 +114,7 @@ public class APIScoreboard implements Serializable{
 	 * @return The APITeam with the given name
 	 */
 	public APITeam getTeam(String name){
-		for(APITeam t: teams){
-			if(t.getTeam().getName().equals(name)){
-				return t;
-			}
-		}
-
-		return null;
+		return teamIndex.get(name);
 	}
 
 	/**
@@ -132,6 +146,7 @@ public class APIScoreboard implements Serializable{
 	public APIObjective registerObjective(String name, String type){
 		APIObjective o = new APIObjective(s.registerNewObjective(name, type));
 		objectives.add(o);
+		objectiveIndex.put(name, o);
 
 		return o;
 	}
@@ -181,7 +196,7 @@ public class APIScoreboard implements Serializable{
 	 *            The internal name of the objective
 	 */
 	public void unregisterObjective(String name){
-		APIObjective o = getObjective(name);
+		APIObjective o = objectiveIndex.remove(name);
 		o.getObjective().unregister();
 		objectives.remove(o);
 	}
@@ -194,13 +209,7 @@ public class APIScoreboard implements Serializable{
 	 * @return The APIObjective with the given name
 	 */
 	public APIObjective getObjective(String name){
-		for(APIObjective o: objectives){
-			if(o.getObjective().getName().equals(name)){
-				return o;
-			}
-		}
-
-		return null;
+		return objectiveIndex.get(name);
 	}
 
 	/**
@@ -271,7 +280,8 @@ public class APIScoreboard implements Serializable{
 	 *            The player to add
 	 */
 	public void addPlayer(Player p){
-		players.add(p);
+		players.put(p.getUniqueId(), p);
+		VIEWERS.computeIfAbsent(p.getUniqueId(), u -> Collections.newSetFromMap(new WeakHashMap<>())).add(this);
 		p.setScoreboard(s);
 	}
 
@@ -283,29 +293,93 @@ public class APIScoreboard implements Serializable{
 	 *            The player to remove
 	 */
 	public void removePlayer(Player p){
-		players.remove(p);
+		players.remove(p.getUniqueId());
+		Set<APIScoreboard> boards = VIEWERS.get(p.getUniqueId());
+
+		if(boards != null){
+			boards.remove(this);
+
+			if(boards.isEmpty()){
+				VIEWERS.remove(p.getUniqueId());
+			}
+		}
+
 		p.setScoreboard(Bukkit.getScoreboardManager().getNewScoreboard());
 	}
 
 	/**
 	 * Returns the list of players that are viewing this scoreboard.
 	 * 
-	 * @return The list of players that are viewing this scoreboard
+	 * @return A copy of the list of players that are viewing this scoreboard
 	 */
 	public List<Player> getPlayers(){
-		return players;
+		return new ArrayList<>(players.values());
+	}
+
+	/**
+	 * Removes the player with the given UUID from all scoreboards they are viewing. This is called by the
+	 * {@link cf.lukasheinzl.mc.api.scoreboard.ScoreboardListener ScoreboardListener} when the player leaves.
+	 * 
+	 * @param uuid
+	 *            The UUID of the player
+	 */
+	static void removeViewer(UUID uuid){
+		Set<APIScoreboard> boards = VIEWERS.remove(uuid);
+
+		if(boards != null){
+			for(APIScoreboard b: boards){
+				b.players.remove(uuid);
+			}
+		}
 	}
 
 	/**
-	 * Should be called after an scoreboard change. Sets this scoreboard as the current scoreboard for all registered
-	 * players.
+	 * Should be called after an scoreboard change. Marks this scoreboard as changed; it is set as the current scoreboard
+	 * for all registered players once during the next tick, no matter how often this is called until then.
+	 * 
+	 * @see #flush()
 	 */
 	public void update(){
-		for(Player p: players){
-			p.setScoreboard(s);
+		dirty = true;
+
+		if(task == null){
+			task = Bukkit.getScheduler().runTask(JavaPlugin.getPlugin(API.class), this::flush);
+		}
+	}
+
+	/**
+	 * Sets this scoreboard as the current scoreboard for all registered players immediately, if it was changed. Players
+	 * that are already viewing this scoreboard are skipped. This is done automatically during the next tick after
+	 * {@link #update()} was called.
+	 */
+	public void flush(){
+		if(task != null){
+			task.cancel();
+			task = null;
+		}
+
+		if(!dirty){
+			return;
+		}
+
+		dirty = false;
+
+		for(Player p: players.values()){
+			if(p.getScoreboard() != s){
+				p.setScoreboard(s);
+			}
 		}
 	}
 
+	/**
+	 * Returns if this scoreboard was changed and waits to be flushed.
+	 * 
+	 * @return If this scoreboard waits to be flushed
+	 */
+	public boolean isDirty(){
+		return dirty;
+	}
+
 	private void writeObject(ObjectOutputStream oos) throws IOException{
 		oos.defaultWriteObject();
 
@@ -325,6 +399,9 @@ public class APIScoreboard implements Serializable{
 	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException{
 		ois.defaultReadObject();
 		s = Bukkit.getScoreboardManager().getNewScoreboard();
+		objectiveIndex = new HashMap<>();
+		teamIndex = new HashMap<>();
+		players = new LinkedHashMap<>();
 
 		for(APIObjective o: objectives){
 			String name = (String) ois.readObject();
@@ -335,6 +412,7 @@ public class APIScoreboard implements Serializable{
 			o.setScores(s.registerNewObjective(name, criteria));
 			o.getObjective().setDisplayName(displayName);
 			o.getObjective().setDisplaySlot(slot);
+			objectiveIndex.put(name, o);
 		}
 
 		for(APITeam t: teams){
@@ -343,6 +421,7 @@ public class APIScoreboard implements Serializable{
 
 			t.setEntries(s.registerNewTeam(name));
 			t.setDisplayName(displayName);
+			teamIndex.put(name, t);
 		}
 	}
 
@@ -0,0 +1,22 @@
+package cf.lukasheinzl.mc.api.scoreboard;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * This class removes players from all {@link cf.lukasheinzl.mc.api.scoreboard.APIScoreboard APIScoreboards} they are
+ * viewing once they leave the server. It is registered by the PluginAPI plugin itself.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class ScoreboardListener implements Listener{
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e){
+		APIScoreboard.removeViewer(e.getPlayer().getUniqueId());
+	}
+
+}
@@ -2,25 +2,33 @@ package cf.lukasheinzl.mc.api.scoreboard;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.DisplaySlot;
 
 /**
  * This class can be used to create and 'design' sidebar-scoreboards. It consists of header, center and footer sections
- * that can be changed independently from each other.
+ * that can be changed independently from each other.<br>
+ * The scores of the last rendered lines are kept, so an update only resets the lines that were removed and sets the
+ * lines that are new or moved. Several changes can be collected into a single update with {@link #batch(Runnable)}.
  * 
  * @author Lukas Heinzl
  *
  */
 public class SidebarDecorator{
 
-	private final APIScoreboard	s;
-	private final String		name;
-	private final List<String>	header	= new ArrayList<>();
-	private final List<String>	center	= new ArrayList<>();
-	private final List<String>	footer	= new ArrayList<>();
+	private final APIScoreboard		s;
+	private final APIObjective		obj;
+	private final String			name;
+	private final List<String>		header		= new ArrayList<>();
+	private final List<String>		center		= new ArrayList<>();
+	private final List<String>		footer		= new ArrayList<>();
+	private Map<String, Integer>	rendered	= new HashMap<>();
+	private int						batches;
+	private boolean					changed;
 
 	/**
 	 * Constructs a new SidebarDecorator with the given display name.
@@ -43,7 +51,7 @@ public class SidebarDecorator{
 		this.s = s;
 		this.name = name;
 
-		s.registerObjective("obj", "dummy", name, DisplaySlot.SIDEBAR);
+		this.obj = s.registerObjective("obj", "dummy", name, DisplaySlot.SIDEBAR);
 	}
 
 	/**
@@ -83,7 +91,7 @@ public class SidebarDecorator{
 	}
 
 	/**
-	 * Sets the header lines. This triggers an update.
+	 * Sets the header lines. This triggers an update, unless it is part of a batch.
 	 * 
 	 * @param header
 	 *            The header lines
@@ -91,11 +99,11 @@ public class SidebarDecorator{
 	public void setHeader(List<String> header){
 		this.header.clear();
 		this.header.addAll(header);
-		update();
+		changed();
 	}
 
 	/**
-	 * Sets the center lines. This triggers an update.
+	 * Sets the center lines. This triggers an update, unless it is part of a batch.
 	 * 
 	 * @param center
 	 *            The center lines
@@ -103,11 +111,11 @@ public class SidebarDecorator{
 	public void setCenter(List<String> center){
 		this.center.clear();
 		this.center.addAll(center);
-		update();
+		changed();
 	}
 
 	/**
-	 * Sets the footer lines. This triggers an update.
+	 * Sets the footer lines. This triggers an update, unless it is part of a batch.
 	 * 
 	 * @param footer
 	 *            The footer lines
@@ -115,11 +123,11 @@ public class SidebarDecorator{
 	public void setFooter(List<String> footer){
 		this.footer.clear();
 		this.footer.addAll(footer);
-		update();
+		changed();
 	}
 
 	/**
-	 * Sets the header lines. This triggers an update.
+	 * Sets the header lines. This triggers an update, unless it is part of a batch.
 	 * 
 	 * @param header
 	 *            The header lines
@@ -130,7 +138,7 @@ public class SidebarDecorator{
 	}
 
 	/**
-	 * Sets the center lines. This triggers an update.
+	 * Sets the center lines. This triggers an update, unless it is part of a batch.
 	 * 
 	 * @param center
 	 *            The center lines
@@ -141,7 +149,7 @@ public class SidebarDecorator{
 	}
 
 	/**
-	 * Sets the footer lines. This triggers an update.
+	 * Sets the footer lines. This triggers an update, unless it is part of a batch.
 	 * 
 	 * @param footer
 	 *            The footer lines
@@ -176,33 +184,77 @@ public class SidebarDecorator{
 	}
 
 	/**
-	 * Resets the sidebar for all registered players and sets the current lines. <br>
-	 * The header lines will be added first, then the center lines and at last the footer lines.
+	 * Performs the given changes as a single update. Section changes made by the task do not trigger their own updates;
+	 * if any section changed, the sidebar is updated once after the task. Batches can be nested.
 	 * 
-	 * @see cf.lukasheinzl.mc.api.scoreboard.APIScoreboard#update()
+	 * @param task
+	 *            The task changing the sections
+	 */
+	public void batch(Runnable task){
+		batches++;
+
+		try{
+			task.run();
+		} finally{
+			batches--;
+
+			if(batches == 0 && changed){
+				update();
+			}
+		}
+	}
+
+	/**
+	 * Updates the sidebar to the current lines. Only the lines that were removed or changed their text or position
+	 * since the last update are sent to the viewers.<br>
+	 * The header lines will be added first, then the center lines and at last the footer lines.
 	 */
 	public void update(){
-		s.getObjective("obj").resetAllScores();
+		changed = false;
 
-		int total = header.size() + center.size() + footer.size();
+		String[] lines = new String[header.size() + center.size() + footer.size()];
 		int count = 0;
 
-		for(int i = 0; i < header.size(); i++){
-			s.setScore("obj", header.get(i), total - count);
-			count++;
+		for(String line: header){
+			lines[count++] = line;
 		}
 
-		for(int i = 0; i < center.size(); i++){
-			s.setScore("obj", center.get(i), total - count);
-			count++;
+		for(String line: center){
+			lines[count++] = line;
 		}
 
-		for(int i = 0; i < footer.size(); i++){
-			s.setScore("obj", footer.get(i), total - count);
-			count++;
+		for(String line: footer){
+			lines[count++] = line;
 		}
 
-		s.update();
+		// equal lines only have one score, the lowest one wins
+		Map<String, Integer> scores = new HashMap<>();
+
+		for(int i = 0; i < lines.length; i++){
+			scores.put(lines[i], lines.length - i);
+		}
+
+		for(String line: rendered.keySet()){
+			if(!scores.containsKey(line)){
+				obj.resetScore(line);
+			}
+		}
+
+		for(Map.Entry<String, Integer> e: scores.entrySet()){
+			if(!e.getValue().equals(rendered.get(e.getKey()))){
+				obj.setScore(e.getKey(), e.getValue());
+			}
+		}
+
+		rendered = scores;
+	}
+
+	private void changed(){
+		if(batches > 0){
+			changed = true;
+		} else{
+			update();
+		}
 	}
 
 }
@@ -0,0 +1,319 @@
+package cf.lukasheinzl.mc.api.scoreboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import cf.lukasheinzl.mc.api.API;
+
+/**
+ * This class shows a sidebar with per-player values (e.g. coins, kills or ping) to many players. Lines are templates
+ * containing placeholders like <code>{coins}</code>; they are parsed once into literal and placeholder segments.<br>
+ * Every viewer has their own {@link cf.lukasheinzl.mc.api.scoreboard.SidebarDecorator SidebarDecorator}. Each
+ * placeholder is refreshed at its own rate and only the lines using a changed value are rendered again, into a buffer
+ * that is reused for the viewer. If a rendered line did not change, no scoreboard call is made. Rendered lines longer
+ * than {@value #MAX_LENGTH} characters are cut, as longer scoreboard entries are rejected.<br>
+ * Placeholders must be added before the lines using them; unknown placeholders are shown as they are. The template
+ * should only be accessed from the server thread.
+ * 
+ * @author Lukas Heinzl
+ *
+ */
+public class SidebarTemplate{
+
+	/**
+	 * The maximum length of a rendered line.
+	 */
+	public static final int							MAX_LENGTH		= 40;
+
+	private final String							name;
+	private final Map<String, Integer>				ids				= new HashMap<>();
+	private final List<Function<? super Player, ?>>	placeholders	= new ArrayList<>();
+	private final List<Integer>						rates			= new ArrayList<>();
+	private final List<Line>						lines			= new ArrayList<>();
+	private final Map<UUID, Viewer>					viewers			= new HashMap<>();
+	private BukkitTask								task;
+	private long									tick;
+
+	/**
+	 * Constructs a new SidebarTemplate with the given display name.
+	 * 
+	 * @param name
+	 *            The display name of the sidebar
+	 */
+	public SidebarTemplate(String name){
+		this.name = name;
+	}
+
+	/**
+	 * Adds a placeholder with the given name. Its value is refreshed every given amount of ticks.
+	 * 
+	 * @param name
+	 *            The name of the placeholder, used as <code>{name}</code> in lines
+	 * @param value
+	 *            The function returning the value for a viewer
+	 * @param refreshTicks
+	 *            The amount of ticks between two refreshes (at least 1)
+	 * @return This SidebarTemplate - allows method chaining
+	 */
+	public SidebarTemplate addPlaceholder(String name, Function<? super Player, ?> value, int refreshTicks){
+		Integer id = ids.get(name);
+
+		if(id == null){
+			ids.put(name, placeholders.size());
+			placeholders.add(value);
+			rates.add(Math.max(1, refreshTicks));
+		} else{
+			placeholders.set(id, value);
+			rates.set(id, Math.max(1, refreshTicks));
+		}
+
+		return this;
+	}
+
+	/**
+	 * Adds a line below the existing lines. It is shown to existing viewers with the next refresh. The rendered line is
+	 * cut after {@value #MAX_LENGTH} characters.
+	 * 
+	 * @param line
+	 *            The line, may contain placeholders
+	 * @return This SidebarTemplate - allows method chaining
+	 */
+	public SidebarTemplate addLine(String line){
+		lines.add(compile(line));
+
+		for(Viewer v: viewers.values()){
+			v.lines = Arrays.copyOf(v.lines, lines.size());
+		}
+
+		return this;
+	}
+
+	/**
+	 * Adds the given lines below the existing lines.
+	 * 
+	 * @param lines
+	 *            The lines, may contain placeholders
+	 * @return This SidebarTemplate - allows method chaining
+	 * @see #addLine(String)
+	 */
+	public SidebarTemplate addLines(String... lines){
+		for(String line: lines){
+			addLine(line);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Shows the sidebar to the given player. It is rendered immediately.
+	 * 
+	 * @param p
+	 *            The player to show the sidebar to
+	 */
+	public void addPlayer(Player p){
+		if(viewers.containsKey(p.getUniqueId())){
+			return;
+		}
+
+		Viewer v = new Viewer(p);
+		viewers.put(p.getUniqueId(), v);
+		v.d.addPlayer(p);
+		render(v, true);
+
+		if(task == null){
+			task = Bukkit.getScheduler().runTaskTimer(JavaPlugin.getPlugin(API.class), this::tick, 1, 1);
+		}
+	}
+
+	/**
+	 * Removes the sidebar from the given player.
+	 * 
+	 * @param p
+	 *            The player to remove the sidebar from
+	 * @see cf.lukasheinzl.mc.api.scoreboard.SidebarDecorator#removePlayer(Player)
+	 */
+	public void removePlayer(Player p){
+		Viewer v = viewers.remove(p.getUniqueId());
+
+		if(v != null){
+			v.d.removePlayer(p);
+		}
+
+		if(viewers.isEmpty() && task != null){
+			task.cancel();
+			task = null;
+		}
+	}
+
+	/**
+	 * Returns the amount of players viewing the sidebar.
+	 * 
+	 * @return The amount of players viewing the sidebar
+	 */
+	public int getViewerCount(){
+		return viewers.size();
+	}
+
+	private void tick(){
+		tick++;
+
+		Iterator<Viewer> it = viewers.values().iterator();
+
+		while(it.hasNext()){
+			Viewer v = it.next();
+
+			if(!v.p.isOnline()){
+				it.remove();
+				continue;
+			}
+
+			render(v, false);
+		}
+
+		if(viewers.isEmpty()){
+			task.cancel();
+			task = null;
+		}
+	}
+
+	private void render(Viewer v, boolean all){
+		if(v.values.length < placeholders.size()){
+			v.values = Arrays.copyOf(v.values, placeholders.size());
+			v.changed = new boolean[placeholders.size()];
+		}
+
+		for(int i = 0; i < placeholders.size(); i++){
+			v.changed[i] = false;
+
+			if(all || v.values[i] == null || tick % rates.get(i) == 0){
+				String value = String.valueOf(placeholders.get(i).apply(v.p));
+
+				if(!value.equals(v.values[i])){
+					v.values[i] = value;
+					v.changed[i] = true;
+				}
+			}
+		}
+
+		boolean changed = false;
+
+		for(int j = 0; j < lines.size(); j++){
+			Line l = lines.get(j);
+
+			if(v.lines[j] != null && !l.uses(v.changed)){
+				continue;
+			}
+
+			StringBuilder sb = v.sb;
+			sb.setLength(0);
+			sb.append(l.literals[0]);
+
+			for(int k = 0; k < l.ids.length; k++){
+				sb.append(v.values[l.ids[k]]).append(l.literals[k + 1]);
+			}
+
+			if(sb.length() > MAX_LENGTH){
+				// never leave a dangling colour code
+				sb.setLength(sb.charAt(MAX_LENGTH - 1) == ChatColor.COLOR_CHAR ? MAX_LENGTH - 1 : MAX_LENGTH);
+			}
+
+			if(v.lines[j] == null || !v.lines[j].contentEquals(sb)){
+				v.lines[j] = sb.toString();
+				changed = true;
+			}
+		}
+
+		if(changed){
+			v.d.setCenter(v.lines);
+		}
+	}
+
+	private Line compile(String line){
+		List<String> literals = new ArrayList<>();
+		List<Integer> used = new ArrayList<>();
+		int start = 0;
+		int literal = 0;
+
+		while(true){
+			int open = line.indexOf('{', start);
+			int close = open < 0 ? -1 : line.indexOf('}', open);
+
+			if(close < 0){
+				break;
+			}
+
+			Integer id = ids.get(line.substring(open + 1, close));
+
+			if(id == null){
+				// not a placeholder, stays part of the literal
+				start = open + 1;
+				continue;
+			}
+
+			literals.add(line.substring(literal, open));
+			used.add(id);
+			start = literal = close + 1;
+		}
+
+		literals.add(line.substring(literal));
+
+		int[] idArray = new int[used.size()];
+
+		for(int i = 0; i < idArray.length; i++){
+			idArray[i] = used.get(i);
+		}
+
+		return new Line(literals.toArray(new String[literals.size()]), idArray);
+	}
+
+	private static class Line{
+
+		private final String[]	literals;
+		private final int[]		ids;
+
+		private Line(String[] literals, int[] ids){
+			this.literals = literals;
+			this.ids = ids;
+		}
+
+		private boolean uses(boolean[] changed){
+			for(int id: ids){
+				if(changed[id]){
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+	}
+
+	private class Viewer{
+
+		private final Player			p;
+		private final SidebarDecorator	d;
+		private final StringBuilder		sb		= new StringBuilder(40);
+		private String[]				values	= new String[placeholders.size()];
+		private boolean[]				changed	= new boolean[placeholders.size()];
+		private String[]				lines	= new String[SidebarTemplate.this.lines.size()];
+
+		private Viewer(Player p){
+			this.p = p;
+			this.d = new SidebarDecorator(name);
+		}
+
+	}
+
+}